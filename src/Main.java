@@ -1,7 +1,16 @@
 import javax.swing.*;
+import java.io.File;
+import java.util.List;
 
 public class Main {
     public static void main(String[] args) {
+        // --render <directory> [width height] exports every saved design
+        // as PNG images without opening any window
+        if (args.length > 0 && args[0].equals("--render")) {
+            renderDesigns(args);
+            return;
+        }
+
         Login login = new Login();
         login.setContentPane(login.mainPanel);
         login.setTitle("Login");
@@ -9,4 +18,42 @@ public class Main {
         login.setVisible(true);
         login.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
     }
-}
\ No newline at end of file
+
+    private static void renderDesigns(String[] args) {
+        // Both sizes or neither
+        if (args.length == 3 || args.length > 4) {
+            renderUsage();
+            return;
+        }
+        File directory = new File(args.length > 1 ? args[1] : "renders");
+        int width = DesignRenderer.PLAN_WIDTH;
+        int height = DesignRenderer.PLAN_HEIGHT;
+        if (args.length == 4) {
+            try {
+                width = Integer.parseInt(args[2]);
+                height = Integer.parseInt(args[3]);
+            } catch (NumberFormatException e) {
+                renderUsage();
+                return;
+            }
+            if (width <= 0 || height <= 0) {
+                renderUsage();
+                return;
+            }
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        long start = System.nanoTime();
+        List<DesignSummary> designs = DesignManager.getDesignSummaries();
+        int exported = DesignRenderer.exportAll(designs, directory, width, height);
+        System.out.println("Rendered " + exported + " of " + designs.size() + " designs to " + directory
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static void renderUsage() {
+        System.err.println("Usage: --render [directory [width height]]");
+        System.err.println("Width and height are positive whole numbers of pixels, default "
+                + DesignRenderer.PLAN_WIDTH + " by " + DesignRenderer.PLAN_HEIGHT + ".");
+        System.exit(1);
+    }
+}
@@ -1,37 +1,66 @@
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Design {
     private String name;
     private Room room;
-    private List<FurnitureItem> items;
+    private final FurnitureStore furniture = new FurnitureStore(this);
+    private final List<FurnitureItem> items = new ItemList();
     private Date creationDate;
-    private Date lastModifiedDate;
+    // Millis rather than a Date, since every item change updates it
+    private long lastModified;
+    private final List<DesignListener> listeners = new CopyOnWriteArrayList<>();
 
     public Design(String name, Room room) {
         this.name = name;
         this.room = room;
-        this.items = new ArrayList<>();
         this.creationDate = new Date();
-        this.lastModifiedDate = new Date();
+        this.lastModified = creationDate.getTime();
     }
 
     // Methods to manage furniture items
     public void addItem(FurnitureItem item) {
-        items.add(item);
-        lastModifiedDate = new Date();
+        furniture.adopt(item);
+        modified();
     }
 
     public void removeItem(FurnitureItem item) {
-        items.remove(item);
-        lastModifiedDate = new Date();
+        int index = furniture.indexOf(item);
+        if (index >= 0) {
+            furniture.removeAt(index);
+        }
+        modified();
     }
 
     // Scaling method
     public void scaleToFit() {
         // Logic to scale furniture to fit room
-        lastModifiedDate = new Date();
+        modified();
+    }
+
+    // Listeners to be notified when the design or one of its items changes
+    public void addListener(DesignListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(DesignListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Called by FurnitureItem setters
+    void itemChanged(FurnitureItem item) {
+        modified();
+    }
+
+    private void modified() {
+        lastModified = System.currentTimeMillis();
+        for (DesignListener listener : listeners) {
+            listener.designChanged(this);
+        }
     }
 
     public String getName() {
@@ -40,7 +69,7 @@ public class Design {
 
     public void setName(String name) {
         this.name = name;
-        lastModifiedDate = new Date();
+        modified();
     }
 
     public Room getRoom() {
@@ -49,16 +78,32 @@ public class Design {
 
     public void setRoom(Room room) {
         this.room = room;
-        lastModifiedDate = new Date();
+        modified();
     }
 
+    /**
+     * Returns a live, read-only list view of the furniture. Use addItem and
+     * removeItem to change it.
+     */
     public List<FurnitureItem> getItems() {
         return items;
     }
 
+    /**
+     * Returns the furniture arrays, for code that walks every item
+     */
+    public FurnitureStore getFurniture() {
+        return furniture;
+    }
+
     public void setItems(List<FurnitureItem> items) {
-        this.items = items;
-        lastModifiedDate = new Date();
+        // Copy first, the list may be this design's own view
+        FurnitureItem[] incoming = items.toArray(new FurnitureItem[0]);
+        furniture.clear();
+        for (FurnitureItem item : incoming) {
+            furniture.adopt(item);
+        }
+        modified();
     }
 
     public Date getCreationDate() {
@@ -70,10 +115,29 @@ public class Design {
     }
 
     public Date getLastModifiedDate() {
-        return lastModifiedDate;
+        return new Date(lastModified);
+    }
+
+    public long getLastModified() {
+        return lastModified;
     }
 
     public void setLastModifiedDate(Date lastModifiedDate) {
-        this.lastModifiedDate = lastModifiedDate;
+        this.lastModified = lastModifiedDate != null ? lastModifiedDate.getTime() : 0L;
+    }
+
+    private class ItemList extends AbstractList<FurnitureItem> {
+        @Override
+        public FurnitureItem get(int index) {
+            if (index < 0 || index >= furniture.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + furniture.size());
+            }
+            return furniture.item(index);
+        }
+
+        @Override
+        public int size() {
+            return furniture.size();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,6 @@
+/**
+ * Receives notifications when a design or one of its furniture items changes
+ */
+public interface DesignListener {
+    void designChanged(Design design);
+}
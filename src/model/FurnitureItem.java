@@ -2,58 +2,115 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Point;
 
+/**
+ * View of one furniture item in a {@link FurnitureStore}.
+ *
+ * The item's data lives in the store's arrays; getPosition, getSize and
+ * getColor return new objects built from them, so change an item through its
+ * setters. An item that is not in a design has a one-item store of its own.
+ */
 public class FurnitureItem {
-    private FurnitureType type;
-    private Dimension size; // width, height
-    private Point position; // x, y position in the room
-    private double rotation; // in degrees
-    private Color color;
+    private FurnitureStore store;
+    private int index;
 
     public FurnitureItem(FurnitureType type, Dimension size, Point position, Color color) {
-        this.type = type;
-        this.size = size;
-        this.position = position;
-        this.color = color;
-        this.rotation = 0;
+        FurnitureStore own = new FurnitureStore(null, 1);
+        own.add(type,
+                position != null ? position.x : 0, position != null ? position.y : 0,
+                size != null ? size.width : 0, size != null ? size.height : 0,
+                0, FurnitureStore.toArgb(color));
+        this.store = own;
+        this.index = 0;
+    }
+
+    // Created by FurnitureStore.item
+    FurnitureItem(FurnitureStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    void bind(FurnitureStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    FurnitureStore getStore() {
+        return store;
+    }
+
+    int getIndex() {
+        return index;
     }
 
     public FurnitureType getType() {
-        return type;
+        return store.getType(index);
     }
 
     public void setType(FurnitureType type) {
-        this.type = type;
+        store.setType(index, type);
+        changed();
     }
 
     public Dimension getSize() {
-        return size;
+        return new Dimension(store.getWidth(index), store.getHeight(index));
     }
 
     public void setSize(Dimension size) {
-        this.size = size;
+        store.setSize(index, size.width, size.height);
+        changed();
+    }
+
+    public int getWidth() {
+        return store.getWidth(index);
+    }
+
+    public int getHeight() {
+        return store.getHeight(index);
     }
 
     public Point getPosition() {
-        return position;
+        return new Point(store.getX(index), store.getY(index));
     }
 
     public void setPosition(Point position) {
-        this.position = position;
+        store.setPosition(index, position.x, position.y);
+        changed();
+    }
+
+    public int getX() {
+        return store.getX(index);
+    }
+
+    public int getY() {
+        return store.getY(index);
     }
 
     public double getRotation() {
-        return rotation;
+        return store.getRotation(index);
     }
 
     public void setRotation(double rotation) {
-        this.rotation = rotation;
+        store.setRotation(index, rotation);
+        changed();
     }
 
     public Color getColor() {
-        return color;
+        return new Color(store.getArgb(index), true);
     }
 
     public void setColor(Color color) {
-        this.color = color;
+        store.setArgb(index, FurnitureStore.toArgb(color));
+        changed();
+    }
+
+    public int getArgb() {
+        return store.getArgb(index);
+    }
+
+    private void changed() {
+        Design owner = store.getOwner();
+        if (owner != null) {
+            owner.itemChanged(this);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,327 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * Furniture of one design, stored as parallel primitive arrays.
+ *
+ * Item i's position, size, rotation, color and type live at index i of their
+ * own array, so rendering and hit-testing walk a few dense arrays instead of
+ * chasing Point, Dimension and Color objects around the heap.
+ * {@link FurnitureItem} objects are small views onto one index, created only
+ * when a caller asks for one, and keep their identity while they stay here.
+ *
+ * Items keep the order they were added in, which is also the drawing order.
+ * Each item also has an id that stays the same while indexes shift, used to
+ * file it in the spatial index that picking goes through. The spatial index
+ * is only built once something asks for it and then kept up to date.
+ */
+public class FurnitureStore {
+    private static final FurnitureType[] TYPES = FurnitureType.values();
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private final Design owner; // null for the store of an item not in a design
+    private int size;
+    private int[] x;
+    private int[] y;
+    private int[] width;
+    private int[] height;
+    private float[] rotation; // degrees
+    private int[] argb;
+    private byte[] type; // ordinal, -1 for no type
+    private FurnitureItem[] views;
+
+    // Stable ids: slot -> id and id -> slot, with removed ids reused
+    private int[] ids;
+    private int[] slotOfId = new int[0];
+    private int[] freeIds = new int[0];
+    private int freeIdCount;
+    private int nextId;
+
+    private SpatialGrid spatialIndex;
+    private final OrientedBox scratchBox = new OrientedBox();
+
+    // Counts changes to anything collisions depend on
+    private int modCount;
+
+    public FurnitureStore(Design owner) {
+        this(owner, DEFAULT_CAPACITY);
+    }
+
+    public FurnitureStore(Design owner, int capacity) {
+        this.owner = owner;
+        x = new int[capacity];
+        y = new int[capacity];
+        width = new int[capacity];
+        height = new int[capacity];
+        rotation = new float[capacity];
+        argb = new int[capacity];
+        type = new byte[capacity];
+        views = new FurnitureItem[capacity];
+        ids = new int[capacity];
+    }
+
+    public Design getOwner() {
+        return owner;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getX(int i) {
+        return x[i];
+    }
+
+    public int getY(int i) {
+        return y[i];
+    }
+
+    public int getWidth(int i) {
+        return width[i];
+    }
+
+    public int getHeight(int i) {
+        return height[i];
+    }
+
+    public double getRotation(int i) {
+        return rotation[i];
+    }
+
+    public int getArgb(int i) {
+        return argb[i];
+    }
+
+    public FurnitureType getType(int i) {
+        return type[i] < 0 ? null : TYPES[type[i]];
+    }
+
+    /**
+     * Returns the view of item i, creating it the first time
+     */
+    public FurnitureItem item(int i) {
+        FurnitureItem view = views[i];
+        if (view == null) {
+            view = new FurnitureItem(this, i);
+            views[i] = view;
+        }
+        return view;
+    }
+
+    /**
+     * Returns the index of the given item in this store, or -1
+     */
+    public int indexOf(FurnitureItem item) {
+        return item != null && item.getStore() == this ? item.getIndex() : -1;
+    }
+
+    /**
+     * Returns the index of the first item whose footprint contains the point,
+     * or -1. Rotated items are tested against their rotated footprint.
+     */
+    public int indexAt(int px, int py) {
+        int[] best = {-1};
+        spatialIndex().query(px, py, id -> {
+            int i = slotOfId[id];
+            if ((best[0] < 0 || i < best[0]) && footprint(i).contains(px, py)) {
+                best[0] = i;
+            }
+        });
+        return best[0];
+    }
+
+    /**
+     * Returns the rotated footprint of item i in a box that is reused by the
+     * next call
+     */
+    public OrientedBox footprint(int i) {
+        return scratchBox.set(x[i], y[i], width[i], height[i], rotation[i]);
+    }
+
+    /**
+     * Returns the spatial index over item ids, building it the first time
+     */
+    public SpatialGrid spatialIndex() {
+        if (spatialIndex == null) {
+            spatialIndex = new SpatialGrid();
+            for (int i = 0; i < size; i++) {
+                reindex(i);
+            }
+        }
+        return spatialIndex;
+    }
+
+    public int getId(int i) {
+        return ids[i];
+    }
+
+    public int indexOfId(int id) {
+        return slotOfId[id];
+    }
+
+    /**
+     * Returns a number that changes whenever an item is added, removed,
+     * moved, resized, rotated or given another type, so results worked out
+     * from the furniture can be kept until it changes
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Appends an item without notifying the owner and returns its index.
+     * Used when loading designs; editors go through {@link Design#addItem}.
+     */
+    int add(FurnitureType itemType, int itemX, int itemY, int itemWidth, int itemHeight,
+            double itemRotation, int itemArgb) {
+        if (size == x.length) {
+            grow();
+        }
+        int i = size++;
+        x[i] = itemX;
+        y[i] = itemY;
+        width[i] = itemWidth;
+        height[i] = itemHeight;
+        rotation[i] = (float) itemRotation;
+        argb[i] = itemArgb;
+        type[i] = itemType != null ? (byte) itemType.ordinal() : -1;
+        ids[i] = allocateId(i);
+        reindex(i);
+        modCount++;
+        return i;
+    }
+
+    /**
+     * Moves an item into this store, taking it out of the store it was in
+     */
+    void adopt(FurnitureItem item) {
+        FurnitureStore from = item.getStore();
+        if (from == this) {
+            return;
+        }
+        int j = item.getIndex();
+        int i = add(from.getType(j), from.x[j], from.y[j], from.width[j], from.height[j],
+                from.rotation[j], from.argb[j]);
+        if (from.owner != null) {
+            from.removeAt(j);
+        }
+        views[i] = item;
+        item.bind(this, i);
+    }
+
+    /**
+     * Removes item i, keeping the order of the others. If a view of it exists
+     * it is moved to a store of its own, so it stays usable.
+     */
+    void removeAt(int i) {
+        FurnitureItem view = views[i];
+        if (view != null) {
+            FurnitureStore detached = new FurnitureStore(null, 1);
+            detached.add(getType(i), x[i], y[i], width[i], height[i], rotation[i], argb[i]);
+            detached.views[0] = view;
+            view.bind(detached, 0);
+        }
+        releaseId(ids[i]);
+        modCount++;
+
+        int tail = size - i - 1;
+        System.arraycopy(x, i + 1, x, i, tail);
+        System.arraycopy(y, i + 1, y, i, tail);
+        System.arraycopy(width, i + 1, width, i, tail);
+        System.arraycopy(height, i + 1, height, i, tail);
+        System.arraycopy(rotation, i + 1, rotation, i, tail);
+        System.arraycopy(argb, i + 1, argb, i, tail);
+        System.arraycopy(type, i + 1, type, i, tail);
+        System.arraycopy(views, i + 1, views, i, tail);
+        System.arraycopy(ids, i + 1, ids, i, tail);
+        size--;
+        views[size] = null;
+        for (int k = i; k < size; k++) {
+            slotOfId[ids[k]] = k;
+            if (views[k] != null) {
+                views[k].bind(this, k);
+            }
+        }
+    }
+
+    void clear() {
+        while (size > 0) {
+            removeAt(size - 1);
+        }
+    }
+
+    // Setters used by FurnitureItem, which notifies the owner
+
+    void setType(int i, FurnitureType itemType) {
+        type[i] = itemType != null ? (byte) itemType.ordinal() : -1;
+        modCount++;
+    }
+
+    void setPosition(int i, int itemX, int itemY) {
+        x[i] = itemX;
+        y[i] = itemY;
+        reindex(i);
+        modCount++;
+    }
+
+    void setSize(int i, int itemWidth, int itemHeight) {
+        width[i] = itemWidth;
+        height[i] = itemHeight;
+        reindex(i);
+        modCount++;
+    }
+
+    void setRotation(int i, double itemRotation) {
+        rotation[i] = (float) itemRotation;
+        reindex(i);
+        modCount++;
+    }
+
+    void setArgb(int i, int itemArgb) {
+        argb[i] = itemArgb;
+    }
+
+    // A missing color is stored as fully transparent
+    static int toArgb(Color color) {
+        return color != null ? color.getRGB() : 0;
+    }
+
+    private void reindex(int i) {
+        if (spatialIndex != null) {
+            OrientedBox box = footprint(i);
+            spatialIndex.put(ids[i], box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY());
+        }
+    }
+
+    private int allocateId(int slot) {
+        int id = freeIdCount > 0 ? freeIds[--freeIdCount] : nextId++;
+        if (id >= slotOfId.length) {
+            slotOfId = Arrays.copyOf(slotOfId, Math.max(DEFAULT_CAPACITY, slotOfId.length * 2));
+        }
+        slotOfId[id] = slot;
+        return id;
+    }
+
+    private void releaseId(int id) {
+        if (spatialIndex != null) {
+            spatialIndex.remove(id);
+        }
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(DEFAULT_CAPACITY, freeIds.length * 2));
+        }
+        freeIds[freeIdCount++] = id;
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, x.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        rotation = Arrays.copyOf(rotation, capacity);
+        argb = Arrays.copyOf(argb, capacity);
+        type = Arrays.copyOf(type, capacity);
+        views = Arrays.copyOf(views, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.BitSet;
+
+/**
+ * Finds furniture that overlaps other furniture or stands outside the room.
+ *
+ * Footprints are rotated boxes, compared with the separating axis test. The
+ * store's spatial grid serves as the broad phase, so each item is only
+ * compared with items near it rather than with every other item.
+ */
+public class CollisionEngine {
+    private final OrientedBox box = new OrientedBox();
+    private final OrientedBox other = new OrientedBox();
+
+    /**
+     * Returns the indexes of every item that overlaps another item or is not
+     * fully inside the room. The room may be null to skip the wall check.
+     */
+    public BitSet findCollisions(FurnitureStore furniture, RoomOutline room) {
+        BitSet colliding = new BitSet(furniture.size());
+        SpatialGrid grid = furniture.spatialIndex();
+        for (int i = 0; i < furniture.size(); i++) {
+            setBox(box, furniture, i);
+            if (room != null && !room.contains(box)) {
+                colliding.set(i);
+            }
+            int self = i;
+            grid.query(box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY(), id -> {
+                int j = furniture.indexOfId(id);
+                // Each pair once
+                if (j > self && overlaps(furniture, j)) {
+                    colliding.set(self);
+                    colliding.set(j);
+                }
+            });
+        }
+        return colliding;
+    }
+
+    /**
+     * Tests whether item i overlaps another item or is not fully inside the room
+     */
+    public boolean collides(FurnitureStore furniture, int i, RoomOutline room) {
+        setBox(box, furniture, i);
+        if (room != null && !room.contains(box)) {
+            return true;
+        }
+        boolean[] hit = new boolean[1];
+        furniture.spatialIndex().query(box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY(), id -> {
+            int j = furniture.indexOfId(id);
+            if (!hit[0] && j != i && overlaps(furniture, j)) {
+                hit[0] = true;
+            }
+        });
+        return hit[0];
+    }
+
+    // Compares item j with the item currently in box
+    private boolean overlaps(FurnitureStore furniture, int j) {
+        setBox(other, furniture, j);
+        return other.getMinX() < box.getMaxX() && box.getMinX() < other.getMaxX()
+                && other.getMinY() < box.getMaxY() && box.getMinY() < other.getMaxY()
+                && box.intersects(other);
+    }
+
+    private static void setBox(OrientedBox target, FurnitureStore furniture, int i) {
+        target.set(furniture.getX(i), furniture.getY(i), furniture.getWidth(i), furniture.getHeight(i),
+                furniture.getRotation(i));
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * A rectangle rotated about its center, as used for furniture footprints.
+ *
+ * Rotation is in degrees, clockwise on screen (y pointing down), the same
+ * way Graphics2D.rotate turns a shape. Instances are mutable so callers can
+ * reuse one while walking many items.
+ */
+public class OrientedBox {
+    // Overlaps thinner than this count as touching
+    static final double EPSILON = 1e-6;
+
+    private double centerX;
+    private double centerY;
+    private double halfWidth;
+    private double halfHeight;
+    private double cos = 1;
+    private double sin = 0;
+
+    public OrientedBox() {
+    }
+
+    public OrientedBox(double x, double y, double width, double height, double rotation) {
+        set(x, y, width, height, rotation);
+    }
+
+    /**
+     * Sets the box from its unrotated top-left corner, size and rotation
+     */
+    public OrientedBox set(double x, double y, double width, double height, double rotation) {
+        halfWidth = width / 2;
+        halfHeight = height / 2;
+        centerX = x + halfWidth;
+        centerY = y + halfHeight;
+        if (rotation == 0) {
+            cos = 1;
+            sin = 0;
+        } else {
+            double radians = Math.toRadians(rotation);
+            cos = Math.cos(radians);
+            sin = Math.sin(radians);
+        }
+        return this;
+    }
+
+    public boolean contains(double px, double py) {
+        // Turn the point back into the box's own axes
+        double dx = px - centerX;
+        double dy = py - centerY;
+        double localX = dx * cos + dy * sin;
+        double localY = -dx * sin + dy * cos;
+        return Math.abs(localX) <= halfWidth && Math.abs(localY) <= halfHeight;
+    }
+
+    /**
+     * Tests whether the two boxes overlap, by looking for a separating axis
+     * among the four edge directions. Boxes that only touch do not overlap.
+     */
+    public boolean intersects(OrientedBox other) {
+        double dx = other.centerX - centerX;
+        double dy = other.centerY - centerY;
+        return !separatedAlong(cos, sin, dx, dy, other)
+                && !separatedAlong(-sin, cos, dx, dy, other)
+                && !separatedAlong(other.cos, other.sin, dx, dy, other)
+                && !separatedAlong(-other.sin, other.cos, dx, dy, other);
+    }
+
+    private boolean separatedAlong(double axisX, double axisY, double dx, double dy, OrientedBox other) {
+        double distance = Math.abs(dx * axisX + dy * axisY);
+        return distance >= radiusAlong(axisX, axisY) + other.radiusAlong(axisX, axisY) - EPSILON;
+    }
+
+    // Half the length of the box's shadow on a unit axis
+    private double radiusAlong(double axisX, double axisY) {
+        return halfWidth * Math.abs(cos * axisX + sin * axisY)
+                + halfHeight * Math.abs(-sin * axisX + cos * axisY);
+    }
+
+    /**
+     * Returns corner k (0 to 3, clockwise from the unrotated top-left)
+     */
+    public double getCornerX(int k) {
+        double localX = k == 0 || k == 3 ? -halfWidth : halfWidth;
+        double localY = k < 2 ? -halfHeight : halfHeight;
+        return centerX + localX * cos - localY * sin;
+    }
+
+    public double getCornerY(int k) {
+        double localX = k == 0 || k == 3 ? -halfWidth : halfWidth;
+        double localY = k < 2 ? -halfHeight : halfHeight;
+        return centerY + localX * sin + localY * cos;
+    }
+
+    // Half size of the axis-aligned bounding box
+    private double extentX() {
+        return Math.abs(halfWidth * cos) + Math.abs(halfHeight * sin);
+    }
+
+    private double extentY() {
+        return Math.abs(halfWidth * sin) + Math.abs(halfHeight * cos);
+    }
+
+    public double getMinX() {
+        return centerX - extentX();
+    }
+
+    public double getMinY() {
+        return centerY - extentY();
+    }
+
+    public double getMaxX() {
+        return centerX + extentX();
+    }
+
+    public double getMaxY() {
+        return centerY + extentY();
+    }
+
+    public double getCenterX() {
+        return centerX;
+    }
+
+    public double getCenterY() {
+        return centerY;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Floor outline of a room as a simple polygon, in the same coordinates as
+ * the furniture placed in it. Points on the walls count as inside, so
+ * furniture may stand flush against a wall.
+ */
+public class RoomOutline {
+    private final double[] xs;
+    private final double[] ys;
+    // Bounds of the outline, and whether it is exactly that rectangle
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final boolean rectangular;
+
+    public RoomOutline(double[] xs, double[] ys) {
+        if (xs.length != ys.length || xs.length < 3) {
+            throw new IllegalArgumentException("An outline needs at least three points");
+        }
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+
+        double x0 = xs[0], y0 = ys[0], x1 = xs[0], y1 = ys[0];
+        for (int i = 1; i < xs.length; i++) {
+            x0 = Math.min(x0, xs[i]);
+            y0 = Math.min(y0, ys[i]);
+            x1 = Math.max(x1, xs[i]);
+            y1 = Math.max(y1, ys[i]);
+        }
+        minX = x0;
+        minY = y0;
+        maxX = x1;
+        maxY = y1;
+        boolean corners = xs.length == 4;
+        for (int i = 0; corners && i < 4; i++) {
+            corners = (xs[i] == minX || xs[i] == maxX) && (ys[i] == minY || ys[i] == maxY);
+        }
+        rectangular = corners && minX < maxX && minY < maxY;
+    }
+
+    public static RoomOutline rectangle(double x, double y, double width, double height) {
+        return new RoomOutline(
+                new double[] {x, x + width, x + width, x},
+                new double[] {y, y, y + height, y + height});
+    }
+
+    public int getPointCount() {
+        return xs.length;
+    }
+
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    public boolean contains(double px, double py) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if (onSegment(px, py, xs[j], ys[j], xs[i], ys[i])) {
+                return true;
+            }
+            // Even-odd rule: count walls crossed by a ray going right
+            if ((ys[i] > py) != (ys[j] > py)
+                    && px < xs[j] + (py - ys[j]) * (xs[i] - xs[j]) / (ys[i] - ys[j])) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Tests whether a footprint lies entirely on the floor: all of its corners
+     * are inside and none of its sides cross a wall
+     */
+    public boolean contains(OrientedBox box) {
+        double left = box.getMinX();
+        double top = box.getMinY();
+        double right = box.getMaxX();
+        double bottom = box.getMaxY();
+        if (left < minX - OrientedBox.EPSILON || top < minY - OrientedBox.EPSILON
+                || right > maxX + OrientedBox.EPSILON || bottom > maxY + OrientedBox.EPSILON) {
+            return false;
+        }
+        if (rectangular) {
+            return true;
+        }
+        for (int k = 0; k < 4; k++) {
+            if (!contains(box.getCornerX(k), box.getCornerY(k))) {
+                return false;
+            }
+        }
+        for (int k = 0; k < 4; k++) {
+            double ax = box.getCornerX(k);
+            double ay = box.getCornerY(k);
+            double bx = box.getCornerX((k + 1) % 4);
+            double by = box.getCornerY((k + 1) % 4);
+            for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+                if (crosses(ax, ay, bx, by, xs[j], ys[j], xs[i], ys[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean onSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double cross = (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+        if (Math.abs(cross) > OrientedBox.EPSILON * Math.max(1, Math.abs(bx - ax) + Math.abs(by - ay))) {
+            return false;
+        }
+        return px >= Math.min(ax, bx) - OrientedBox.EPSILON && px <= Math.max(ax, bx) + OrientedBox.EPSILON
+                && py >= Math.min(ay, by) - OrientedBox.EPSILON && py <= Math.max(ay, by) + OrientedBox.EPSILON;
+    }
+
+    // True only when the segments cross each other at a single interior point
+    private static boolean crosses(double ax, double ay, double bx, double by,
+                                   double cx, double cy, double dx, double dy) {
+        double d1 = side(cx, cy, dx, dy, ax, ay);
+        double d2 = side(cx, cy, dx, dy, bx, by);
+        double d3 = side(ax, ay, bx, by, cx, cy);
+        double d4 = side(ax, ay, bx, by, dx, dy);
+        return d1 * d2 < 0 && d3 * d4 < 0;
+    }
+
+    // Which side of line a-b the point is on, zero within tolerance
+    private static double side(double ax, double ay, double bx, double by, double px, double py) {
+        double cross = (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+        return Math.abs(cross) <= OrientedBox.EPSILON ? 0 : cross;
+    }
+}
@@ -0,0 +1,250 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform grid of integer ids, each filed under every cell its bounding box
+ * touches.
+ *
+ * Finding what lies under a point only looks at one cell, so picking does
+ * not depend on how many items there are in total. Moving an item only
+ * touches the grid when it crosses into different cells.
+ *
+ * Not thread-safe; used from the thread that edits the design.
+ */
+public class SpatialGrid {
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    private final int cellSize;
+    // Open-addressing table of cells by packed cell key; no boxing on lookup
+    private long[] keys = new long[64];
+    private Cell[] cells = new Cell[64];
+    private int cellCount;
+
+    // Cell range of each id, indexed by id
+    private int[] minCellX = new int[0];
+    private int[] minCellY = new int[0];
+    private int[] maxCellX = new int[0];
+    private int[] maxCellY = new int[0];
+    private boolean[] present = new boolean[0];
+
+    // Marks ids already reported by the current query
+    private int[] seen = new int[0];
+    private int queryStamp;
+
+    private static class Cell {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(ids, 0, grown, 0, size);
+                ids = grown;
+            }
+            ids[size++] = id;
+        }
+
+        void remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    public SpatialGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds an id with the given bounds, or moves it if it is already present
+     */
+    public void put(int id, double minX, double minY, double maxX, double maxY) {
+        ensureCapacity(id + 1);
+        int x0 = cell(minX);
+        int y0 = cell(minY);
+        int x1 = cell(maxX);
+        int y1 = cell(maxY);
+        if (present[id]) {
+            if (x0 == minCellX[id] && y0 == minCellY[id] && x1 == maxCellX[id] && y1 == maxCellY[id]) {
+                return;
+            }
+            remove(id);
+        }
+        minCellX[id] = x0;
+        minCellY[id] = y0;
+        maxCellX[id] = x1;
+        maxCellY[id] = y1;
+        present[id] = true;
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                cellFor(key(cx, cy)).add(id);
+            }
+        }
+    }
+
+    public void remove(int id) {
+        if (id >= present.length || !present[id]) {
+            return;
+        }
+        for (int cy = minCellY[id]; cy <= maxCellY[id]; cy++) {
+            for (int cx = minCellX[id]; cx <= maxCellX[id]; cx++) {
+                long key = key(cx, cy);
+                int slot = find(key);
+                if (slot >= 0) {
+                    cells[slot].remove(id);
+                    if (cells[slot].size == 0) {
+                        removeSlot(slot);
+                    }
+                }
+            }
+        }
+        present[id] = false;
+    }
+
+    /**
+     * Reports every id whose cells contain the point. Candidates only; the
+     * caller checks the exact shape.
+     */
+    public void query(double x, double y, IntConsumer visitor) {
+        int slot = find(key(cell(x), cell(y)));
+        if (slot >= 0) {
+            Cell cell = cells[slot];
+            for (int i = 0; i < cell.size; i++) {
+                visitor.accept(cell.ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Reports, once each, every id whose cells overlap the rectangle
+     */
+    public void query(double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+        int stamp = nextStamp();
+        int x1 = cell(maxX);
+        int y1 = cell(maxY);
+        for (int cy = cell(minY); cy <= y1; cy++) {
+            for (int cx = cell(minX); cx <= x1; cx++) {
+                int slot = find(key(cx, cy));
+                if (slot < 0) {
+                    continue;
+                }
+                Cell cell = cells[slot];
+                for (int i = 0; i < cell.size; i++) {
+                    int id = cell.ids[i];
+                    if (seen[id] != stamp) {
+                        seen[id] = stamp;
+                        visitor.accept(id);
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(cells, null);
+        cellCount = 0;
+        Arrays.fill(present, false);
+    }
+
+    private int nextStamp() {
+        if (++queryStamp == 0) {
+            // Wrapped around; old marks could collide with new stamps
+            Arrays.fill(seen, 0);
+            queryStamp = 1;
+        }
+        return queryStamp;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private int slotOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (keys.length - 1);
+    }
+
+    private int find(long key) {
+        for (int slot = slotOf(key); cells[slot] != null; slot = (slot + 1) & (keys.length - 1)) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private Cell cellFor(long key) {
+        int slot = slotOf(key);
+        while (cells[slot] != null) {
+            if (keys[slot] == key) {
+                return cells[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        Cell cell = new Cell();
+        keys[slot] = key;
+        cells[slot] = cell;
+        if (++cellCount * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return cell;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        cells[slot] = null;
+        cellCount--;
+        for (int next = (slot + 1) & mask; cells[next] != null; next = (next + 1) & mask) {
+            int home = slotOf(keys[next]);
+            // Move the entry back if the freed slot lies on its probe path
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                cells[slot] = cells[next];
+                cells[next] = null;
+                slot = next;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Cell[] oldCells = cells;
+        keys = new long[capacity];
+        cells = new Cell[capacity];
+        for (int i = 0; i < oldCells.length; i++) {
+            if (oldCells[i] != null) {
+                int slot = slotOf(oldKeys[i]);
+                while (cells[slot] != null) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                keys[slot] = oldKeys[i];
+                cells[slot] = oldCells[i];
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= present.length) {
+            return;
+        }
+        int length = Math.max(capacity, present.length * 2);
+        minCellX = Arrays.copyOf(minCellX, length);
+        minCellY = Arrays.copyOf(minCellY, length);
+        maxCellX = Arrays.copyOf(maxCellX, length);
+        maxCellY = Arrays.copyOf(maxCellY, length);
+        present = Arrays.copyOf(present, length);
+        seen = Arrays.copyOf(seen, length);
+    }
+}
@@ -0,0 +1,119 @@
+import javax.swing.Timer;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * Chooses between full-quality and quick draft frames for a view.
+ *
+ * While the user is dragging the view, frames are drafts: no
+ * antialiasing, floor texture, furniture legs or labels. A draft is also
+ * used when the previous full-quality frame went over the frame budget and
+ * the next repaint follows close behind it, as during a window resize.
+ * Once input has been quiet for the settle delay, one full-quality frame
+ * is painted. Zoom button clicks are single changes rather than a stream
+ * of them, so they are painted at full quality.
+ *
+ * Used on the event dispatch thread only.
+ */
+public class AdaptiveQuality {
+    public static final int DEFAULT_SETTLE_DELAY_MS = 200;
+    public static final int DEFAULT_FRAME_BUDGET_MS = 33;
+
+    private final Runnable repaint;
+    private final Timer settleTimer;
+    private final long settleNanos;
+    private final long budgetNanos;
+
+    private long lastInput;
+    private long lastOverrun;
+    private boolean settleFrame;
+    private boolean frameIsFull = true;
+    private long lastFrameNanos;
+    private long draftFrames;
+    private long fullFrames;
+
+    /**
+     * @param repaint asks the view to repaint, for the full-quality frame
+     *                once input settles
+     */
+    public AdaptiveQuality(Runnable repaint) {
+        this(repaint, DEFAULT_SETTLE_DELAY_MS, DEFAULT_FRAME_BUDGET_MS);
+    }
+
+    public AdaptiveQuality(Runnable repaint, int settleDelayMs, int frameBudgetMs) {
+        this.repaint = repaint;
+        settleNanos = settleDelayMs * 1_000_000L;
+        budgetNanos = frameBudgetMs * 1_000_000L;
+        // Start out settled, so frames before any input are full quality
+        lastInput = System.nanoTime() - settleNanos;
+        lastOverrun = lastInput;
+        settleTimer = new Timer(settleDelayMs, e -> {
+            settleFrame = true;
+            repaint.run();
+        });
+        settleTimer.setRepeats(false);
+    }
+
+    /**
+     * Notes user input that moves the view; frames are drafts until it
+     * settles
+     */
+    public void interacting() {
+        lastInput = System.nanoTime();
+        settleTimer.restart();
+    }
+
+    /**
+     * Decides the quality of the frame about to be painted, sets the
+     * rendering hints to match and returns whether it is full quality
+     */
+    public boolean beginFrame(Graphics2D g2d) {
+        long now = System.nanoTime();
+        if (settleFrame) {
+            settleFrame = false;
+            frameIsFull = true;
+        } else {
+            frameIsFull = now - lastInput >= settleNanos && now - lastOverrun >= settleNanos;
+            if (!frameIsFull) {
+                // Make sure a full-quality frame follows the drafts
+                settleTimer.restart();
+            }
+        }
+
+        if (frameIsFull) {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            fullFrames++;
+        } else {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            draftFrames++;
+        }
+        return frameIsFull;
+    }
+
+    /**
+     * Records how long the frame took to paint
+     */
+    public void endFrame(long nanos) {
+        lastFrameNanos = nanos;
+        // Only a draft restarts the settle timer, so a slow full frame makes
+        // the next quick repaint a draft without scheduling one by itself
+        if (frameIsFull && nanos > budgetNanos) {
+            lastOverrun = System.nanoTime();
+        }
+    }
+
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    public long getDraftFrames() {
+        return draftFrames;
+    }
+
+    public long getFullFrames() {
+        return fullFrames;
+    }
+}
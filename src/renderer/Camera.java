@@ -0,0 +1,107 @@
+import java.awt.Point;
+
+/**
+ * View transform for the 3D view: a tilt about the x axis, then a turn
+ * about the vertical axis, then a uniform zoom, with orthographic projection.
+ *
+ * The sines and cosines are worked out once, when the camera is created for
+ * a frame, and folded together with the zoom into one matrix, so projecting
+ * a vertex is a handful of multiply-adds. Coordinates passed in are world
+ * units, before zooming.
+ */
+public class Camera {
+    private final double rotationX;
+    private final double rotationY;
+    private final double scale;
+
+    // Rows of the combined matrix: screen x, screen y and view depth
+    private final double xx, xy, xz;
+    private final double yx, yy, yz;
+    private final double zx, zy, zz;
+
+    /**
+     * @param rotationX tilt in degrees
+     * @param rotationY turn in degrees
+     * @param scale zoom factor applied to every coordinate
+     */
+    public Camera(double rotationX, double rotationY, double scale) {
+        this.rotationX = rotationX;
+        this.rotationY = rotationY;
+        this.scale = scale;
+
+        double radX = Math.toRadians(rotationX);
+        double radY = Math.toRadians(rotationY);
+        double cosX = Math.cos(radX);
+        double sinX = Math.sin(radX);
+        double cosY = Math.cos(radY);
+        double sinY = Math.sin(radY);
+
+        xx = cosY * scale;
+        xy = sinX * sinY * scale;
+        xz = cosX * sinY * scale;
+        yx = 0;
+        yy = cosX * scale;
+        yz = -sinX * scale;
+        // The viewer looks down from above, so points higher up and further
+        // forward are nearer and get a smaller depth
+        zx = sinY * scale;
+        zy = -sinX * cosY * scale;
+        zz = -cosX * cosY * scale;
+    }
+
+    public double getRotationX() {
+        return rotationX;
+    }
+
+    public double getRotationY() {
+        return rotationY;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Projects a point to screen coordinates, relative to the view center
+     */
+    public Point project(double x, double y, double z) {
+        return new Point(projectX(x, y, z), projectY(x, y, z));
+    }
+
+    public Point project(double[] point) {
+        return project(point[0], point[1], point[2]);
+    }
+
+    /**
+     * Projects count points stored as x, y, z triples in points, starting at
+     * point index first, into the same indexes of screenX and screenY, and
+     * writes each point's view depth to the same index of depth
+     */
+    public void project(double[] points, int first, int count, int[] screenX, int[] screenY, double[] depth) {
+        int end = first + count;
+        for (int i = first, p = first * 3; i < end; i++, p += 3) {
+            double x = points[p];
+            double y = points[p + 1];
+            double z = points[p + 2];
+            screenX[i] = (int) (xx * x + xy * y + xz * z);
+            screenY[i] = (int) (yx * x + yy * y + yz * z);
+            depth[i] = zx * x + zy * y + zz * z;
+        }
+    }
+
+    public int projectX(double x, double y, double z) {
+        return (int) (xx * x + xy * y + xz * z);
+    }
+
+    public int projectY(double x, double y, double z) {
+        return (int) (yx * x + yy * y + yz * z);
+    }
+
+    /**
+     * Returns how far a point is from the viewer along the view direction;
+     * larger values are further away
+     */
+    public double depth(double x, double y, double z) {
+        return zx * x + zy * y + zz * z;
+    }
+}
@@ -0,0 +1,226 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Draws designs into images without opening a window, so previews and
+ * exports also work with java.awt.headless=true.
+ *
+ * Furniture positions are in the editor's pixels, on a plan of
+ * {@link #PLAN_WIDTH} by {@link #PLAN_HEIGHT} whose middle is the middle of
+ * the room in 3D. Images of any other size show the same view scaled to fit.
+ *
+ * Different designs can be rendered on different threads at the same time,
+ * but one design should only be rendered or edited by one thread at a time.
+ */
+public class DesignRenderer {
+    public static final int PLAN_WIDTH = 800;
+    public static final int PLAN_HEIGHT = 600;
+    public static final double DEFAULT_ROTATION_X = 30.0;
+    public static final double DEFAULT_ROTATION_Y = 30.0;
+
+    /**
+     * Renders the 2D floor plan of a design
+     */
+    public static BufferedImage render2D(Design design, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, width, height);
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            // Lay the plan out at the editor's size, centered and scaled to fit
+            double scale = fitScale(width, height);
+            g2d.translate((width - PLAN_WIDTH * scale) / 2, (height - PLAN_HEIGHT * scale) / 2);
+            g2d.scale(scale, scale);
+
+            Room room = design.getRoom();
+            RoomOutline outline = null;
+            if (room != null) {
+                outline = PlanRenderingUtil.drawRoom(g2d, room, PLAN_WIDTH, PLAN_HEIGHT);
+            }
+            FurnitureStore furniture = design.getFurniture();
+            if (furniture.size() > 0) {
+                PlanRenderingUtil.drawFurniture(g2d, furniture, -1,
+                        new CollisionEngine().findCollisions(furniture, outline));
+            }
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Renders a design in 3D as the 3D view shows it at full quality, without
+     * the legend and compass
+     */
+    public static BufferedImage render3D(Design design, int width, int height,
+                                         double rotationX, double rotationY, double zoom,
+                                         boolean lightingEnabled) {
+        return render3D(design, width, height, rotationX, rotationY, zoom, lightingEnabled, true);
+    }
+
+    /**
+     * Renders a design in 3D, leaving out labels, legs and floor texture
+     * unless detailed, which suits small images
+     */
+    public static BufferedImage render3D(Design design, int width, int height,
+                                         double rotationX, double rotationY, double zoom,
+                                         boolean lightingEnabled, boolean detailed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+            int centerX = width / 2;
+            int centerY = height / 2;
+            g2d.translate(centerX, centerY);
+            UIRenderingUtil.drawBackground(g2d, centerX, centerY);
+
+            if (design.getRoom() != null) {
+                Camera camera = new Camera(rotationX, rotationY, zoom * fitScale(width, height));
+                FaceBuffer faces = new FaceBuffer();
+                faces.begin(camera);
+                faces.setDetailed(detailed);
+                addDesignFaces(faces, design, camera, lightingEnabled);
+                faces.paint(g2d);
+            }
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Adds the room and furniture faces of a design to a frame that has
+     * been begun with the given camera
+     */
+    public static void addDesignFaces(FaceBuffer faces, Design design, Camera camera, boolean lightingEnabled) {
+        addRoomFaces(faces, design, camera, lightingEnabled);
+        addFurnitureFaces(faces, design, camera, lightingEnabled);
+    }
+
+    /**
+     * Adds the walls and floor of a design's room to a frame
+     */
+    public static void addRoomFaces(FaceBuffer faces, Design design, Camera camera, boolean lightingEnabled) {
+        Room room = design.getRoom();
+
+        // Calculate room dimensions
+        double width = room.getWidth() * 50; // Scale to pixels
+        double length = room.getLength() * 50;
+        double height = room.getHeight() * 50;
+
+        // Collect room faces based on shape
+        faces.setLayer(FaceBuffer.ROOM_LAYER);
+        String roomShape = room.getShape().toLowerCase();
+        if (roomShape.contains("l shape")) {
+            RoomRenderingUtil.drawLShapedRoom3D(faces, room, width, length, height,
+                    camera, lightingEnabled);
+        } else if (roomShape.contains("t shape")) {
+            RoomRenderingUtil.drawTShapedRoom3D(faces, room, width, length, height,
+                    camera, lightingEnabled);
+        } else {
+            // Default rectangular room
+            RoomRenderingUtil.drawRectangularRoom3D(faces, room, width, length, height,
+                    camera, lightingEnabled);
+        }
+    }
+
+    /**
+     * Adds the furniture of a design to a frame
+     */
+    public static void addFurnitureFaces(FaceBuffer faces, Design design, Camera camera, boolean lightingEnabled) {
+        faces.setLayer(FaceBuffer.FURNITURE_LAYER);
+        FurnitureStore furniture = design.getFurniture();
+        for (int i = 0; i < furniture.size(); i++) {
+            FurnitureRenderingUtil.drawFurniture3D(faces, furniture, i, camera, lightingEnabled);
+        }
+    }
+
+    /**
+     * Writes a 2D plan and a 3D view of each design to the directory as
+     * PNG files, rendering on all cores. Returns how many designs were
+     * exported; designs that fail are reported and skipped.
+     */
+    public static int exportAll(List<DesignSummary> designs, File directory, int width, int height) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("Cannot create export directory " + directory);
+            return 0;
+        }
+
+        int threads = Math.max(1, Math.min(designs.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "design-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(designs.size());
+            for (DesignSummary summary : designs) {
+                results.add(workers.submit(() -> export(summary, directory, width, height)));
+            }
+            int exported = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    if (result.get()) {
+                        exported++;
+                    }
+                } catch (ExecutionException e) {
+                    System.err.println("Error rendering design: " + e.getCause());
+                    e.getCause().printStackTrace();
+                }
+            }
+            return exported;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns a file name for a design, with characters that are not safe
+     * in file names replaced. A hash of the real name is appended so that
+     * names differing only in those characters get different files.
+     */
+    public static String fileName(String designName) {
+        return designName.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Integer.toHexString(designName.hashCode());
+    }
+
+    // Renders and writes both images of one design
+    private static boolean export(DesignSummary summary, File directory, int width, int height) {
+        // Decoded on this worker; a design that cannot be decoded was reported
+        Design design = summary.getDesign();
+        if (design == null) {
+            return false;
+        }
+        String name = fileName(summary.getName());
+        try {
+            ImageIO.write(render2D(design, width, height), "png", new File(directory, name + "-plan.png"));
+            ImageIO.write(render3D(design, width, height, DEFAULT_ROTATION_X, DEFAULT_ROTATION_Y, 1.0, true),
+                    "png", new File(directory, name + "-3d.png"));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error exporting design '" + summary.getName() + "': " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Scale that fits the editor's plan into an image of the given size
+    private static double fitScale(int width, int height) {
+        return Math.min((double) width / PLAN_WIDTH, (double) height / PLAN_HEIGHT);
+    }
+}
@@ -0,0 +1,297 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * One frame's worth of 3D faces, painted back to front.
+ *
+ * Renderers submit quads instead of filling them straight away. Faces whose
+ * front side points away from the camera are dropped as they come in, and
+ * the rest are painted in order of layer and then view depth, furthest
+ * first, so nearer geometry always ends up on top regardless of the order
+ * things were submitted in. The sort is a radix sort on a quantized depth
+ * key, which keeps faces at the same depth in submission order.
+ *
+ * A quad's front is the side from which its corners run counter-clockwise.
+ * Rooms are seen from inside, so their faces are wound to point inwards.
+ *
+ * A frame can be marked as not detailed, for quick frames while the view is
+ * being dragged; it then ignores floor texture and labels.
+ *
+ * The arrays grow to the busiest frame and are then reused; call
+ * {@link #begin(Camera)} at the start of every frame. Besides painting
+ * itself, the buffer can be handed to a {@link TileRasterizer}, which reads
+ * the faces through the getters below.
+ */
+public class FaceBuffer {
+    /** Layer for the room shell, painted before anything in it */
+    public static final int ROOM_LAYER = 0;
+    /** Layer for furniture */
+    public static final int FURNITURE_LAYER = 1;
+
+    // Depth is quantized to this many bits below the layer
+    private static final int DEPTH_BITS = 16;
+    private static final int DEPTH_STEPS = (1 << DEPTH_BITS) - 1;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private Camera camera;
+    private int layer;
+    private boolean detailed = true;
+
+    // Faces: four screen corners each, colors, view depth and layer
+    private int faceCount;
+    private int[] cornerX = new int[4 * 256];
+    private int[] cornerY = new int[4 * 256];
+    private double[] cornerDepth = new double[4 * 256];
+    private Color[] fill = new Color[256];
+    private Color[] outline = new Color[256];
+    private double[] depth = new double[256];
+    private int[] layers = new int[256];
+    private boolean[] textured = new boolean[256];
+    private int culledCount;
+
+    // Labels, drawn over all faces
+    private int labelCount;
+    private String[] labels = new String[32];
+    private int[] labelX = new int[32];
+    private int[] labelY = new int[32];
+
+    // Sort keys and scratch space for the radix sort
+    private int[] keys = new int[256];
+    private int[] order = new int[256];
+    private int[] sorted = new int[256];
+    private final int[] counts = new int[RADIX];
+
+    private final int[] polygonX = new int[4];
+    private final int[] polygonY = new int[4];
+
+    /**
+     * Clears the buffer for a new frame seen through the given camera
+     */
+    public void begin(Camera camera) {
+        // Drop references to last frame's colors and strings
+        Arrays.fill(fill, 0, faceCount, null);
+        Arrays.fill(outline, 0, faceCount, null);
+        Arrays.fill(labels, 0, labelCount, null);
+        this.camera = camera;
+        layer = ROOM_LAYER;
+        detailed = true;
+        faceCount = 0;
+        culledCount = 0;
+        labelCount = 0;
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Sets whether this frame draws detail: floor texture, labels and the
+     * detail parts of furniture meshes. Frames are detailed unless told
+     * otherwise after {@link #begin(Camera)}.
+     */
+    public void setDetailed(boolean detailed) {
+        this.detailed = detailed;
+    }
+
+    public boolean isDetailed() {
+        return detailed;
+    }
+
+    /**
+     * Sets the layer that faces submitted from now on belong to
+     */
+    public void setLayer(int layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * Adds quad a-b-c-d from the projected vertices in buffer, unless its
+     * front faces away from the camera. Returns the face index, or -1 if the
+     * face was culled.
+     */
+    public int addQuad(ProjectionBuffer buffer, int a, int b, int c, int d, Color fillColor, Color outlineColor) {
+        if (buffer.normalDepth(camera, a, b, c, d) >= 0) {
+            culledCount++;
+            return -1;
+        }
+        if (faceCount == fill.length) {
+            grow(faceCount * 2);
+        }
+        int face = faceCount++;
+        int k = face * 4;
+        cornerX[k] = buffer.getScreenX(a);
+        cornerY[k] = buffer.getScreenY(a);
+        cornerX[k + 1] = buffer.getScreenX(b);
+        cornerY[k + 1] = buffer.getScreenY(b);
+        cornerX[k + 2] = buffer.getScreenX(c);
+        cornerY[k + 2] = buffer.getScreenY(c);
+        cornerX[k + 3] = buffer.getScreenX(d);
+        cornerY[k + 3] = buffer.getScreenY(d);
+        cornerDepth[k] = buffer.getDepth(a);
+        cornerDepth[k + 1] = buffer.getDepth(b);
+        cornerDepth[k + 2] = buffer.getDepth(c);
+        cornerDepth[k + 3] = buffer.getDepth(d);
+        fill[face] = fillColor;
+        outline[face] = outlineColor;
+        depth[face] = (cornerDepth[k] + cornerDepth[k + 1] + cornerDepth[k + 2] + cornerDepth[k + 3]) / 4;
+        layers[face] = layer;
+        textured[face] = false;
+        return face;
+    }
+
+    /**
+     * Marks a face to have the floor texture drawn over it, if the frame is
+     * detailed
+     */
+    public void setTextured(int face) {
+        if (face >= 0 && detailed) {
+            textured[face] = true;
+        }
+    }
+
+    /**
+     * Adds a text label at a screen position, drawn after every face, if
+     * the frame is detailed
+     */
+    public void addLabel(String text, int x, int y) {
+        if (!detailed) {
+            return;
+        }
+        if (labelCount == labels.length) {
+            int capacity = labelCount * 2;
+            labels = Arrays.copyOf(labels, capacity);
+            labelX = Arrays.copyOf(labelX, capacity);
+            labelY = Arrays.copyOf(labelY, capacity);
+        }
+        labels[labelCount] = text;
+        labelX[labelCount] = x;
+        labelY[labelCount] = y;
+        labelCount++;
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    /**
+     * Returns the screen x of corner k, 0-3, of a face
+     */
+    public int getCornerX(int face, int k) {
+        return cornerX[face * 4 + k];
+    }
+
+    public int getCornerY(int face, int k) {
+        return cornerY[face * 4 + k];
+    }
+
+    public double getCornerDepth(int face, int k) {
+        return cornerDepth[face * 4 + k];
+    }
+
+    public Color getFill(int face) {
+        return fill[face];
+    }
+
+    public Color getOutline(int face) {
+        return outline[face];
+    }
+
+    public boolean isTextured(int face) {
+        return textured[face];
+    }
+
+    /**
+     * Returns how many faces were dropped as facing away since the last begin
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    /**
+     * Sorts the faces and paints them, then the labels
+     */
+    public void paint(Graphics2D g2d) {
+        sort();
+        for (int n = 0; n < faceCount; n++) {
+            int face = order[n];
+            int k = face * 4;
+            for (int i = 0; i < 4; i++) {
+                polygonX[i] = cornerX[k + i];
+                polygonY[i] = cornerY[k + i];
+            }
+            g2d.setColor(fill[face]);
+            g2d.fillPolygon(polygonX, polygonY, 4);
+            g2d.setColor(outline[face]);
+            g2d.drawPolygon(polygonX, polygonY, 4);
+            if (textured[face]) {
+                RoomRenderingUtil.drawFloorTexture(g2d, polygonX, polygonY);
+            }
+        }
+        paintLabels(g2d);
+    }
+
+    /**
+     * Paints only the labels, for when the faces were drawn some other way
+     */
+    public void paintLabels(Graphics2D g2d) {
+        g2d.setColor(Color.BLACK);
+        for (int i = 0; i < labelCount; i++) {
+            g2d.drawString(labels[i], labelX[i], labelY[i]);
+        }
+    }
+
+    // Orders faces by layer, then from furthest to nearest
+    private void sort() {
+        double nearest = Double.POSITIVE_INFINITY;
+        double furthest = Double.NEGATIVE_INFINITY;
+        int topLayer = 0;
+        for (int i = 0; i < faceCount; i++) {
+            nearest = Math.min(nearest, depth[i]);
+            furthest = Math.max(furthest, depth[i]);
+            topLayer = Math.max(topLayer, layers[i]);
+        }
+        double range = furthest - nearest;
+        double step = range > 0 ? DEPTH_STEPS / range : 0;
+        for (int i = 0; i < faceCount; i++) {
+            keys[i] = layers[i] << DEPTH_BITS | (int) ((furthest - depth[i]) * step);
+            order[i] = i;
+        }
+
+        // Least significant digit first; each pass is stable
+        int keyBits = DEPTH_BITS + (32 - Integer.numberOfLeadingZeros(topLayer));
+        for (int shift = 0; shift < keyBits; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < faceCount; i++) {
+                counts[(keys[order[i]] >>> shift) & (RADIX - 1)]++;
+            }
+            for (int r = 0, total = 0; r < RADIX; r++) {
+                int c = counts[r];
+                counts[r] = total;
+                total += c;
+            }
+            for (int i = 0; i < faceCount; i++) {
+                int face = order[i];
+                sorted[counts[(keys[face] >>> shift) & (RADIX - 1)]++] = face;
+            }
+            int[] swap = order;
+            order = sorted;
+            sorted = swap;
+        }
+    }
+
+    private void grow(int capacity) {
+        cornerX = Arrays.copyOf(cornerX, capacity * 4);
+        cornerY = Arrays.copyOf(cornerY, capacity * 4);
+        cornerDepth = Arrays.copyOf(cornerDepth, capacity * 4);
+        fill = Arrays.copyOf(fill, capacity);
+        outline = Arrays.copyOf(outline, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        layers = Arrays.copyOf(layers, capacity);
+        textured = Arrays.copyOf(textured, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        order = Arrays.copyOf(order, capacity);
+        sorted = Arrays.copyOf(sorted, capacity);
+    }
+}
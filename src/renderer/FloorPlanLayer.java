@@ -0,0 +1,107 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * The room part of the 2D plan, kept as an image between paints.
+ *
+ * The outline, dimension labels and axes only change with the room or the
+ * panel size, so they are drawn once into an image that later paints just
+ * copy, and only the furniture is drawn each time. The image is drawn again
+ * when the room's shape, size or floor color, the panel size or the
+ * screen's scaling changes. Rooms have no change events, so their values
+ * are compared on every paint.
+ */
+public class FloorPlanLayer {
+    private BufferedImage image;
+    private RoomOutline outline;
+
+    // What the image was drawn for
+    private Room room;
+    private String shape;
+    private double roomWidth;
+    private double roomLength;
+    private Color floorColor;
+    private Color background;
+    private int panelWidth;
+    private int panelHeight;
+    private double scale;
+
+    private long redraws;
+
+    /**
+     * Paints the room as {@link PlanRenderingUtil#drawRoom} would over a
+     * panel of the given size and background, and returns its floor outline
+     * or null if the panel is too small
+     */
+    public RoomOutline paint(Graphics2D g2d, Room room, int panelWidth, int panelHeight, Color background) {
+        if (panelWidth <= 0 || panelHeight <= 0) return null;
+
+        // Draw at the screen's resolution so scaled displays stay sharp
+        double scale = g2d.getDeviceConfiguration().getDefaultTransform().getScaleX();
+        if (!isDrawnFor(room, panelWidth, panelHeight, background, scale)) {
+            redraw(g2d, room, panelWidth, panelHeight, background, scale);
+        }
+        if (scale == 1) {
+            g2d.drawImage(image, 0, 0, null);
+        } else {
+            g2d.drawImage(image, 0, 0, panelWidth, panelHeight, null);
+        }
+        return outline;
+    }
+
+    /**
+     * Makes the next paint draw the room again
+     */
+    public void invalidate() {
+        image = null;
+    }
+
+    /**
+     * Returns how many times the room has been drawn into the image
+     */
+    public long getRedraws() {
+        return redraws;
+    }
+
+    private boolean isDrawnFor(Room room, int panelWidth, int panelHeight, Color background, double scale) {
+        return image != null && room == this.room
+                && room.getShape().equals(shape)
+                && room.getWidth() == roomWidth && room.getLength() == roomLength
+                && room.getFloorColor().equals(floorColor)
+                && background.equals(this.background)
+                && panelWidth == this.panelWidth && panelHeight == this.panelHeight
+                && scale == this.scale;
+    }
+
+    private void redraw(Graphics2D g2d, Room room, int panelWidth, int panelHeight, Color background,
+                        double scale) {
+        int width = (int) Math.ceil(panelWidth * scale);
+        int height = (int) Math.ceil(panelHeight * scale);
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = g2d.getDeviceConfiguration().createCompatibleImage(width, height, Transparency.OPAQUE);
+        }
+
+        Graphics2D layer = image.createGraphics();
+        try {
+            layer.setRenderingHints(g2d.getRenderingHints());
+            layer.setFont(g2d.getFont());
+            layer.setColor(background);
+            layer.fillRect(0, 0, width, height);
+            layer.scale(scale, scale);
+            outline = PlanRenderingUtil.drawRoom(layer, room, panelWidth, panelHeight);
+        } finally {
+            layer.dispose();
+        }
+
+        this.room = room;
+        shape = room.getShape();
+        roomWidth = room.getWidth();
+        roomLength = room.getLength();
+        floorColor = room.getFloorColor();
+        this.background = background;
+        this.panelWidth = panelWidth;
+        this.panelHeight = panelHeight;
+        this.scale = scale;
+        redraws++;
+    }
+}
@@ -0,0 +1,144 @@
+import javax.swing.Timer;
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+
+/**
+ * Paces a view's frames to a target frame rate, the display's refresh rate
+ * by default.
+ *
+ * Input handlers update the view's state and call {@link #requestFrame()}
+ * instead of repainting. However many requests come in during a frame
+ * period, the frame runs at most once in it: straight away if the view has
+ * been idle for a period, otherwise on the next timer tick. The timer stops
+ * once a tick finds nothing to do.
+ *
+ * Counts requests, frames, requests merged into an earlier frame, and
+ * frame periods skipped because a tick came late.
+ *
+ * Used on the event dispatch thread only.
+ */
+public class FrameScheduler {
+    public static final int DEFAULT_FPS = 60;
+    public static final int MAX_FPS = 240;
+
+    private final Runnable frame;
+    private final Timer timer;
+    private long periodNanos;
+
+    private boolean pending;
+    private long lastFrame;
+    private long lastTick;
+
+    private long requests;
+    private long frames;
+    private long coalesced;
+    private long skipped;
+
+    /**
+     * @param frame applies the accumulated input and repaints the view
+     */
+    public FrameScheduler(Runnable frame) {
+        this(frame, displayRefreshRate());
+    }
+
+    public FrameScheduler(Runnable frame, int targetFps) {
+        this.frame = frame;
+        timer = new Timer(1000 / DEFAULT_FPS, e -> tick());
+        timer.setCoalesce(true);
+        setTargetFps(targetFps);
+    }
+
+    /**
+     * Returns the refresh rate of the main screen, or {@link #DEFAULT_FPS}
+     * if it is not known
+     */
+    public static int displayRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_FPS;
+        }
+        DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDisplayMode();
+        int rate = mode.getRefreshRate();
+        return rate != DisplayMode.REFRESH_RATE_UNKNOWN ? rate : DEFAULT_FPS;
+    }
+
+    public void setTargetFps(int fps) {
+        fps = Math.max(1, Math.min(MAX_FPS, fps));
+        periodNanos = 1_000_000_000L / fps;
+        timer.setDelay(Math.max(1, 1000 / fps));
+    }
+
+    public int getTargetFps() {
+        return (int) (1_000_000_000L / periodNanos);
+    }
+
+    /**
+     * Asks for a frame; requests before it runs are merged into it
+     */
+    public void requestFrame() {
+        requests++;
+        if (pending) {
+            coalesced++;
+            return;
+        }
+        pending = true;
+        if (!timer.isRunning()) {
+            long now = System.nanoTime();
+            if (frames == 0 || now - lastFrame >= periodNanos) {
+                // Idle for a period already, so no need to wait for a tick
+                runFrame(now);
+            }
+            lastTick = now;
+            timer.start();
+        }
+    }
+
+    /**
+     * Runs a requested frame now rather than on the next tick, for input
+     * that must be applied before something else happens
+     */
+    public void flush() {
+        if (pending) {
+            runFrame(System.nanoTime());
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        // A late tick means the display showed frames this view missed
+        long late = (now - lastTick) / periodNanos - 1;
+        if (late > 0) {
+            skipped += late;
+        }
+        lastTick = now;
+
+        if (!pending) {
+            timer.stop();
+            return;
+        }
+        runFrame(now);
+    }
+
+    private void runFrame(long now) {
+        pending = false;
+        lastFrame = now;
+        frames++;
+        frame.run();
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+}
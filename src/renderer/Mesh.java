@@ -0,0 +1,168 @@
+import java.util.Arrays;
+
+/**
+ * Geometry of one kind of furniture at one size, in the item's own
+ * coordinates: centered on its position, z up from the floor.
+ *
+ * Faces are quads of vertex indexes, wound counter-clockwise seen from
+ * outside. Instead of colors, each face has a tone, how many times the
+ * item's color is darkened, and a light factor, so one mesh serves items
+ * of any color; the outline of a face is one tone darker than its fill.
+ *
+ * Everything added after {@link #beginDetail()} is detail (legs, beams,
+ * the label) that a low-quality frame leaves out by drawing only the first
+ * {@link #getCoreVertexCount()} vertices and {@link #getCoreFaceCount()}
+ * faces.
+ *
+ * A mesh is filled in once when it is built and not changed after that, so
+ * any number of items and threads can share it.
+ */
+public class Mesh {
+    /** The item's own color */
+    public static final int BASE = 0;
+    /** One step darker than the item */
+    public static final int DARK = 1;
+    /** Two steps darker than the item */
+    public static final int DARKER = 2;
+
+    private double[] vertices = new double[3 * 16];
+    private int vertexCount;
+    private int[] quads = new int[4 * 16];
+    private byte[] tones = new byte[16];
+    private double[] lights = new double[16];
+    private int faceCount;
+    // Where the detail starts; everything is core until beginDetail
+    private int coreVertexCount = -1;
+    private int coreFaceCount = -1;
+
+    // Optional label, drawn at a vertex with a fixed screen offset
+    private String label;
+    private int labelVertex = -1;
+    private int labelOffsetX;
+    private int labelOffsetY;
+
+    /**
+     * Adds a vertex and returns its index
+     */
+    public int addVertex(double x, double y, double z) {
+        if (vertexCount * 3 == vertices.length) {
+            vertices = Arrays.copyOf(vertices, vertices.length * 2);
+        }
+        int p = vertexCount * 3;
+        vertices[p] = x;
+        vertices[p + 1] = y;
+        vertices[p + 2] = z;
+        return vertexCount++;
+    }
+
+    /**
+     * Adds the eight corners of an axis-aligned box and returns the first
+     * index: bottom corners 0-3, then the top corners above them 4-7
+     */
+    public int addBox(double x, double y, double z, double width, double length, double height) {
+        int first = addVertex(x, y, z);
+        addVertex(x + width, y, z);
+        addVertex(x + width, y + length, z);
+        addVertex(x, y + length, z);
+        addVertex(x, y, z + height);
+        addVertex(x + width, y, z + height);
+        addVertex(x + width, y + length, z + height);
+        addVertex(x, y + length, z + height);
+        return first;
+    }
+
+    public void addQuad(int a, int b, int c, int d, int tone, double light) {
+        if (faceCount == tones.length) {
+            int capacity = faceCount * 2;
+            quads = Arrays.copyOf(quads, capacity * 4);
+            tones = Arrays.copyOf(tones, capacity);
+            lights = Arrays.copyOf(lights, capacity);
+        }
+        int k = faceCount * 4;
+        quads[k] = a;
+        quads[k + 1] = b;
+        quads[k + 2] = c;
+        quads[k + 3] = d;
+        tones[faceCount] = (byte) tone;
+        lights[faceCount] = light;
+        faceCount++;
+    }
+
+    /**
+     * Marks everything added from now on as detail
+     */
+    public void beginDetail() {
+        coreVertexCount = vertexCount;
+        coreFaceCount = faceCount;
+    }
+
+    /**
+     * Sets the label, anchored at a point of the mesh and shifted on screen.
+     * Labels count as detail, so call this after {@link #beginDetail()}.
+     */
+    public void setLabel(String text, double x, double y, double z, int offsetX, int offsetY) {
+        label = text;
+        labelVertex = addVertex(x, y, z);
+        labelOffsetX = offsetX;
+        labelOffsetY = offsetY;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public double getX(int vertex) {
+        return vertices[vertex * 3];
+    }
+
+    public double getY(int vertex) {
+        return vertices[vertex * 3 + 1];
+    }
+
+    public double getZ(int vertex) {
+        return vertices[vertex * 3 + 2];
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    public int getCoreVertexCount() {
+        return coreVertexCount < 0 ? vertexCount : coreVertexCount;
+    }
+
+    public int getCoreFaceCount() {
+        return coreFaceCount < 0 ? faceCount : coreFaceCount;
+    }
+
+    /**
+     * Returns corner k, 0-3, of a face as a vertex index
+     */
+    public int getCorner(int face, int k) {
+        return quads[face * 4 + k];
+    }
+
+    public int getTone(int face) {
+        return tones[face];
+    }
+
+    public double getLight(int face) {
+        return lights[face];
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getLabelVertex() {
+        return labelVertex;
+    }
+
+    public int getLabelOffsetX() {
+        return labelOffsetX;
+    }
+
+    public int getLabelOffsetY() {
+        return labelOffsetY;
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.Arrays;
+
+/**
+ * Reusable vertex and screen coordinate arrays for drawing 3D geometry.
+ *
+ * Vertices are appended as flat x, y, z triples, projected in one pass by
+ * {@link Camera#project(double[], int, int, int[], int[], double[])}, and
+ * faces are handed to a {@link FaceBuffer} straight from the projected
+ * arrays. Drawing code works like a stack: note {@link #mark()}, add and
+ * draw, then {@link #release(int)}, so nested helpers share one buffer
+ * without clobbering each other's vertices.
+ *
+ * One buffer per thread; the arrays grow to the largest frame and are then
+ * reused, so steady-state drawing allocates nothing here.
+ */
+public class ProjectionBuffer {
+    private static final ThreadLocal<ProjectionBuffer> BUFFERS =
+            ThreadLocal.withInitial(ProjectionBuffer::new);
+
+    private double[] points = new double[3 * 64];
+    private int[] screenX = new int[64];
+    private int[] screenY = new int[64];
+    private double[] depth = new double[64];
+    private int count;
+
+    public static ProjectionBuffer forCurrentThread() {
+        return BUFFERS.get();
+    }
+
+    public int mark() {
+        return count;
+    }
+
+    /**
+     * Drops every vertex added since the given mark
+     */
+    public void release(int mark) {
+        count = mark;
+    }
+
+    /**
+     * Adds a vertex and returns its index
+     */
+    public int add(double x, double y, double z) {
+        if (count == screenX.length) {
+            int capacity = count * 2;
+            points = Arrays.copyOf(points, capacity * 3);
+            screenX = Arrays.copyOf(screenX, capacity);
+            screenY = Arrays.copyOf(screenY, capacity);
+            depth = Arrays.copyOf(depth, capacity);
+        }
+        int p = count * 3;
+        points[p] = x;
+        points[p + 1] = y;
+        points[p + 2] = z;
+        return count++;
+    }
+
+    /**
+     * Adds the eight corners of an axis-aligned box and returns the first
+     * index: bottom corners 0-3, then the top corners above them 4-7
+     */
+    public int addBox(double x, double y, double z, double width, double length, double height) {
+        int first = add(x, y, z);
+        add(x + width, y, z);
+        add(x + width, y + length, z);
+        add(x, y + length, z);
+        add(x, y, z + height);
+        add(x + width, y, z + height);
+        add(x + width, y + length, z + height);
+        add(x, y + length, z + height);
+        return first;
+    }
+
+    /**
+     * Projects every vertex added since the given mark
+     */
+    public void project(Camera camera, int from) {
+        camera.project(points, from, count - from, screenX, screenY, depth);
+    }
+
+    public int getScreenX(int i) {
+        return screenX[i];
+    }
+
+    public int getScreenY(int i) {
+        return screenY[i];
+    }
+
+    public double getDepth(int i) {
+        return depth[i];
+    }
+
+    /**
+     * Returns the view depth of the normal of quad a-b-c-d, taking the normal
+     * on the side from which the corners run counter-clockwise. Negative
+     * means that side faces the viewer.
+     */
+    public double normalDepth(Camera camera, int a, int b, int c, int d) {
+        // Cross product of the two diagonals
+        int pa = a * 3, pb = b * 3, pc = c * 3, pd = d * 3;
+        double ux = points[pc] - points[pa];
+        double uy = points[pc + 1] - points[pa + 1];
+        double uz = points[pc + 2] - points[pa + 2];
+        double vx = points[pd] - points[pb];
+        double vy = points[pd + 1] - points[pb + 1];
+        double vz = points[pd + 2] - points[pb + 2];
+        return camera.depth(uy * vz - uz * vy, uz * vx - ux * vz, ux * vy - uy * vx);
+    }
+}
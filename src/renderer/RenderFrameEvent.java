@@ -0,0 +1,46 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for one painted frame of an editor view, recorded
+ * by {@link RenderStats} while a recording has it enabled
+ */
+@Name("roomdesigner.RenderFrame")
+@Label("Render Frame")
+@Category({"Room Designer", "Rendering"})
+@Description("One frame painted by the 2D plan or the 3D view")
+@StackTrace(false)
+public class RenderFrameEvent extends Event {
+    @Label("View")
+    String view;
+
+    @Label("Room")
+    @Timespan(Timespan.NANOSECONDS)
+    long roomTime;
+
+    @Label("Furniture")
+    @Timespan(Timespan.NANOSECONDS)
+    long furnitureTime;
+
+    @Label("Raster")
+    @Timespan(Timespan.NANOSECONDS)
+    long rasterTime;
+
+    @Label("Overlay")
+    @Timespan(Timespan.NANOSECONDS)
+    long overlayTime;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the painting thread during the frame, -1 if not measured")
+    @DataAmount
+    long allocated;
+
+    @Label("Items Drawn")
+    int itemsDrawn;
+}
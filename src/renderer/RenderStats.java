@@ -0,0 +1,266 @@
+import jdk.jfr.EventType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Timings of the frames painted by one view, for the performance HUD and
+ * flight recordings.
+ *
+ * A frame is split into stages: the room, the furniture, rasterizing faces
+ * (3D only) and overlays such as the legend. The view marks where each
+ * stage starts; stages it never enters are left out of the HUD. Frame and
+ * stage times and allocation are averaged over roughly the last
+ * {@link #AVERAGE_FRAMES} frames, and every frame is counted in a histogram
+ * of frame times. Each frame is also recorded as a {@link RenderFrameEvent}
+ * when a recording enables it.
+ *
+ * Debug printing in the painting code is off unless the program is run
+ * with -Drender.debug=true, since printing every frame slows it down.
+ *
+ * Used on the event dispatch thread only.
+ */
+public class RenderStats {
+    public static final int ROOM = 0;
+    public static final int FURNITURE = 1;
+    public static final int RASTER = 2;
+    public static final int OVERLAY = 3;
+    public static final int STAGE_COUNT = 4;
+
+    public static final int AVERAGE_FRAMES = 16;
+
+    // Upper bounds of the histogram buckets in milliseconds; one more
+    // bucket holds the slower frames
+    private static final int[] BUCKET_LIMITS_MS = {1, 2, 4, 8, 16, 33, 66};
+
+    private static final String[] STAGE_NAMES = {"Room", "Furniture", "Raster", "Overlay"};
+
+    private static final boolean LOGGING = Boolean.getBoolean("render.debug");
+
+    private static final EventType FRAME_EVENT = EventType.getEventType(RenderFrameEvent.class);
+
+    // Null if the JVM cannot count allocations per thread
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final String view;
+
+    private final long[] histogram = new long[BUCKET_LIMITS_MS.length + 1];
+    private final long[] stageNanos = new long[STAGE_COUNT];
+    private final double[] stageAverages = new double[STAGE_COUNT];
+    private final boolean[] stagesSeen = new boolean[STAGE_COUNT];
+
+    // The frame being painted
+    private long frameStart;
+    private long allocationStart;
+    private int stage = -1;
+    private long stageStart;
+    private RenderFrameEvent event;
+
+    private long frames;
+    private long lastFrameNanos;
+    private double averageFrameNanos;
+    private long maxFrameNanos;
+    private long lastAllocated = -1;
+    private double averageAllocated;
+    private int itemsDrawn;
+
+    /**
+     * @param view names the view in the HUD and in recorded events
+     */
+    public RenderStats(String view) {
+        this.view = view;
+    }
+
+    /**
+     * Returns whether debug printing in the painting code is on
+     */
+    public static boolean isLogging() {
+        return LOGGING;
+    }
+
+    public static String getStageName(int stage) {
+        return STAGE_NAMES[stage];
+    }
+
+    public static int getBucketCount() {
+        return BUCKET_LIMITS_MS.length + 1;
+    }
+
+    /**
+     * Returns the upper bound of a histogram bucket in milliseconds, or -1
+     * for the last bucket, which has none
+     */
+    public static int getBucketLimit(int bucket) {
+        return bucket < BUCKET_LIMITS_MS.length ? BUCKET_LIMITS_MS[bucket] : -1;
+    }
+
+    public void beginFrame() {
+        if (FRAME_EVENT.isEnabled()) {
+            event = new RenderFrameEvent();
+            event.begin();
+        }
+        allocationStart = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            stageNanos[i] = 0;
+        }
+        stage = -1;
+        frameStart = System.nanoTime();
+    }
+
+    /**
+     * Ends the current stage, if any, and starts the given one
+     */
+    public void stage(int stage) {
+        long now = System.nanoTime();
+        endStage(now);
+        this.stage = stage;
+        stageStart = now;
+    }
+
+    /**
+     * Ends the frame, noting how many items it drew
+     */
+    public void endFrame(int itemsDrawn) {
+        long now = System.nanoTime();
+        endStage(now);
+        long allocated = allocationStart >= 0 ? THREADS.getCurrentThreadAllocatedBytes() - allocationStart : -1;
+
+        long frameNanos = now - frameStart;
+        frames++;
+        lastFrameNanos = frameNanos;
+        maxFrameNanos = Math.max(maxFrameNanos, frameNanos);
+        averageFrameNanos = average(averageFrameNanos, frameNanos);
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            if (stagesSeen[i]) {
+                stageAverages[i] = average(stageAverages[i], stageNanos[i]);
+            }
+        }
+        lastAllocated = allocated;
+        if (allocated >= 0) {
+            averageAllocated = average(averageAllocated, allocated);
+        }
+        this.itemsDrawn = itemsDrawn;
+        histogram[bucket(frameNanos)]++;
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.view = view;
+                event.roomTime = stageNanos[ROOM];
+                event.furnitureTime = stageNanos[FURNITURE];
+                event.rasterTime = stageNanos[RASTER];
+                event.overlayTime = stageNanos[OVERLAY];
+                event.allocated = allocated;
+                event.itemsDrawn = itemsDrawn;
+                event.commit();
+            }
+            event = null;
+        }
+    }
+
+    /**
+     * Forgets every frame so far
+     */
+    public void reset() {
+        frames = 0;
+        lastFrameNanos = 0;
+        averageFrameNanos = 0;
+        maxFrameNanos = 0;
+        lastAllocated = -1;
+        averageAllocated = 0;
+        itemsDrawn = 0;
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            stageAverages[i] = 0;
+            stagesSeen[i] = false;
+        }
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = 0;
+        }
+    }
+
+    public String getView() {
+        return view;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    public long getAverageFrameNanos() {
+        return (long) averageFrameNanos;
+    }
+
+    public long getMaxFrameNanos() {
+        return maxFrameNanos;
+    }
+
+    /**
+     * Returns whether any frame has entered the stage
+     */
+    public boolean hasStage(int stage) {
+        return stagesSeen[stage];
+    }
+
+    /**
+     * Returns the average time of a stage per frame
+     */
+    public long getStageNanos(int stage) {
+        return (long) stageAverages[stage];
+    }
+
+    /**
+     * Returns the average bytes allocated per frame, or -1 if allocation
+     * is not measured
+     */
+    public long getAllocatedBytes() {
+        return lastAllocated >= 0 ? (long) averageAllocated : -1;
+    }
+
+    public int getItemsDrawn() {
+        return itemsDrawn;
+    }
+
+    /**
+     * Returns how many frames fell in a bucket of the frame time histogram
+     */
+    public long getBucket(int bucket) {
+        return histogram[bucket];
+    }
+
+    private void endStage(long now) {
+        if (stage >= 0) {
+            stageNanos[stage] += now - stageStart;
+            stagesSeen[stage] = true;
+            stage = -1;
+        }
+    }
+
+    // Moving average that starts at the first value
+    private double average(double average, long value) {
+        return frames <= 1 ? value : average + (value - average) / AVERAGE_FRAMES;
+    }
+
+    private static int bucket(long frameNanos) {
+        for (int i = 0; i < BUCKET_LIMITS_MS.length; i++) {
+            if (frameNanos < BUCKET_LIMITS_MS[i] * 1_000_000L) {
+                return i;
+            }
+        }
+        return BUCKET_LIMITS_MS.length;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                return counter;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,354 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Software renderer for the 3D view that draws a frame's faces into an
+ * int-backed image on several threads at once.
+ *
+ * The frame is cut into square tiles. Each face is first filed under every
+ * tile its bounds touch; the tiles are then drawn in parallel on a
+ * ForkJoinPool, each thread owning whole tiles, so no two threads ever
+ * write the same pixel. Quads are filled as two triangles with a z-buffer,
+ * so the result does not depend on the order the faces come in. Outlines
+ * and floor grain lines are drawn after the fills, slightly favoured in
+ * the depth test so they show on their own faces.
+ *
+ * Pixels no face covers are left transparent, so the image can be drawn
+ * over a background. Labels are not drawn here; see
+ * {@link FaceBuffer#paintLabels}. One rasterizer renders one frame at a
+ * time; the image it returns is reused by the next call.
+ */
+public class TileRasterizer {
+    public static final int TILE_SIZE = 64;
+
+    // How much further away a line may be than what is already drawn and
+    // still show, in depth units
+    private static final float LINE_DEPTH_BIAS = 1.0f;
+
+    private final ForkJoinPool pool;
+
+    private BufferedImage image;
+    private int[] pixels;
+    private float[] depthBuffer;
+    private int width;
+    private int height;
+    private int tilesX;
+    private int tilesY;
+
+    // Faces filed under each tile, in submission order
+    private int[][] tileFaces = new int[0][];
+    private int[] tileCounts = new int[0];
+
+    // The frame being drawn
+    private FaceBuffer faces;
+    private int originX;
+    private int originY;
+    private int[] fillArgb = new int[256];
+    private int[] outlineArgb = new int[256];
+    private final int textureArgb = RoomRenderingUtil.TEXTURE_COLOR.getRGB();
+
+    public TileRasterizer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public TileRasterizer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Draws the faces into an image of the given size. Face coordinates are
+     * relative to (originX, originY) in the image.
+     */
+    public BufferedImage render(FaceBuffer faces, int width, int height, int originX, int originY) {
+        resize(Math.max(1, width), Math.max(1, height));
+        this.faces = faces;
+        this.originX = originX;
+        this.originY = originY;
+
+        int count = faces.getFaceCount();
+        if (fillArgb.length < count) {
+            fillArgb = new int[count * 2];
+            outlineArgb = new int[count * 2];
+        }
+        for (int f = 0; f < count; f++) {
+            fillArgb[f] = faces.getFill(f).getRGB();
+            outlineArgb[f] = faces.getOutline(f).getRGB();
+        }
+
+        bin();
+        pool.invoke(new TileTask(0, tilesX * tilesY));
+
+        this.faces = null;
+        return image;
+    }
+
+    private void resize(int newWidth, int newHeight) {
+        if (image != null && width == newWidth && height == newHeight) {
+            return;
+        }
+        width = newWidth;
+        height = newHeight;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        depthBuffer = new float[width * height];
+        tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        tileFaces = new int[tilesX * tilesY][];
+        tileCounts = new int[tilesX * tilesY];
+        for (int t = 0; t < tileFaces.length; t++) {
+            tileFaces[t] = new int[16];
+        }
+    }
+
+    // Files each face under the tiles its screen bounds touch
+    private void bin() {
+        Arrays.fill(tileCounts, 0);
+        for (int f = 0; f < faces.getFaceCount(); f++) {
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+            for (int k = 0; k < 4; k++) {
+                int x = faces.getCornerX(f, k) + originX;
+                int y = faces.getCornerY(f, k) + originY;
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+            if (maxX < 0 || maxY < 0 || minX >= width || minY >= height) {
+                continue;
+            }
+            int fromX = Math.max(0, minX) / TILE_SIZE;
+            int toX = Math.min(width - 1, maxX) / TILE_SIZE;
+            int fromY = Math.max(0, minY) / TILE_SIZE;
+            int toY = Math.min(height - 1, maxY) / TILE_SIZE;
+            for (int ty = fromY; ty <= toY; ty++) {
+                for (int tx = fromX; tx <= toX; tx++) {
+                    int tile = ty * tilesX + tx;
+                    if (tileCounts[tile] == tileFaces[tile].length) {
+                        tileFaces[tile] = Arrays.copyOf(tileFaces[tile], tileCounts[tile] * 2);
+                    }
+                    tileFaces[tile][tileCounts[tile]++] = f;
+                }
+            }
+        }
+    }
+
+    private void renderTile(int tile) {
+        int left = (tile % tilesX) * TILE_SIZE;
+        int top = (tile / tilesX) * TILE_SIZE;
+        int right = Math.min(left + TILE_SIZE, width);
+        int bottom = Math.min(top + TILE_SIZE, height);
+        for (int y = top; y < bottom; y++) {
+            Arrays.fill(pixels, y * width + left, y * width + right, 0);
+            Arrays.fill(depthBuffer, y * width + left, y * width + right, Float.POSITIVE_INFINITY);
+        }
+
+        int[] list = tileFaces[tile];
+        int count = tileCounts[tile];
+        for (int n = 0; n < count; n++) {
+            int f = list[n];
+            fillTriangle(f, 0, 1, 2, left, top, right, bottom);
+            fillTriangle(f, 0, 2, 3, left, top, right, bottom);
+        }
+        for (int n = 0; n < count; n++) {
+            int f = list[n];
+            if (faces.isTextured(f)) {
+                drawGrain(f, left, top, right, bottom);
+            }
+        }
+        for (int n = 0; n < count; n++) {
+            int f = list[n];
+            for (int k = 0; k < 4; k++) {
+                int next = (k + 1) % 4;
+                drawLine(faces.getCornerX(f, k) + originX, faces.getCornerY(f, k) + originY,
+                        faces.getCornerDepth(f, k),
+                        faces.getCornerX(f, next) + originX, faces.getCornerY(f, next) + originY,
+                        faces.getCornerDepth(f, next),
+                        outlineArgb[f], left, top, right, bottom);
+            }
+        }
+    }
+
+    // Fills triangle a-b-c of face f where it falls inside the tile
+    private void fillTriangle(int f, int a, int b, int c, int left, int top, int right, int bottom) {
+        int ax = faces.getCornerX(f, a) + originX, ay = faces.getCornerY(f, a) + originY;
+        int bx = faces.getCornerX(f, b) + originX, by = faces.getCornerY(f, b) + originY;
+        int cx = faces.getCornerX(f, c) + originX, cy = faces.getCornerY(f, c) + originY;
+        double az = faces.getCornerDepth(f, a);
+        double bz = faces.getCornerDepth(f, b);
+        double cz = faces.getCornerDepth(f, c);
+
+        long area = (long) (bx - ax) * (cy - ay) - (long) (by - ay) * (cx - ax);
+        if (area == 0) {
+            return;
+        }
+        if (area < 0) {
+            // Make the corners run the same way round for the edge tests
+            int swapX = bx, swapY = by;
+            double swapZ = bz;
+            bx = cx;
+            by = cy;
+            bz = cz;
+            cx = swapX;
+            cy = swapY;
+            cz = swapZ;
+            area = -area;
+        }
+
+        int minX = Math.max(left, Math.min(ax, Math.min(bx, cx)));
+        int maxX = Math.min(right - 1, Math.max(ax, Math.max(bx, cx)));
+        int minY = Math.max(top, Math.min(ay, Math.min(by, cy)));
+        int maxY = Math.min(bottom - 1, Math.max(ay, Math.max(by, cy)));
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+
+        // Edge functions at the first pixel center, weighting a, b and c,
+        // and how they change per pixel across and down
+        double px = minX + 0.5;
+        double py = minY + 0.5;
+        double rowA = (cx - bx) * (py - by) - (cy - by) * (px - bx);
+        double rowB = (ax - cx) * (py - cy) - (ay - cy) * (px - cx);
+        double rowC = (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+        double stepAX = by - cy, stepAY = cx - bx;
+        double stepBX = cy - ay, stepBY = ax - cx;
+        double stepCX = ay - by, stepCY = bx - ax;
+        double invArea = 1.0 / area;
+        int argb = fillArgb[f];
+        boolean opaque = argb >>> 24 == 255;
+
+        for (int y = minY; y <= maxY; y++) {
+            double wa = rowA, wb = rowB, wc = rowC;
+            int p = y * width + minX;
+            for (int x = minX; x <= maxX; x++, p++) {
+                if (wa >= 0 && wb >= 0 && wc >= 0) {
+                    float z = (float) ((wa * az + wb * bz + wc * cz) * invArea);
+                    if (z < depthBuffer[p]) {
+                        depthBuffer[p] = z;
+                        pixels[p] = opaque ? argb : blend(pixels[p], argb);
+                    }
+                }
+                wa += stepAX;
+                wb += stepBX;
+                wc += stepCX;
+            }
+            rowA += stepAY;
+            rowB += stepBY;
+            rowC += stepCY;
+        }
+    }
+
+    // Wood grain over a floor face, as RoomRenderingUtil.drawFloorTexture
+    private void drawGrain(int f, int left, int top, int right, int bottom) {
+        for (int i = 0; i <= RoomRenderingUtil.GRAIN_LINES; i++) {
+            double ratio = (double) i / RoomRenderingUtil.GRAIN_LINES;
+            drawLine(lerpX(f, 0, 1, ratio), lerpY(f, 0, 1, ratio), lerpDepth(f, 0, 1, ratio),
+                    lerpX(f, 3, 2, ratio), lerpY(f, 3, 2, ratio), lerpDepth(f, 3, 2, ratio),
+                    textureArgb, left, top, right, bottom);
+        }
+    }
+
+    private int lerpX(int f, int from, int to, double ratio) {
+        int x0 = faces.getCornerX(f, from);
+        return (int) (x0 + (faces.getCornerX(f, to) - x0) * ratio) + originX;
+    }
+
+    private int lerpY(int f, int from, int to, double ratio) {
+        int y0 = faces.getCornerY(f, from);
+        return (int) (y0 + (faces.getCornerY(f, to) - y0) * ratio) + originY;
+    }
+
+    private double lerpDepth(int f, int from, int to, double ratio) {
+        double z0 = faces.getCornerDepth(f, from);
+        return z0 + (faces.getCornerDepth(f, to) - z0) * ratio;
+    }
+
+    // Draws the part of a line that falls inside the tile, one pixel per step
+    // along its longer axis
+    private void drawLine(int ax, int ay, double az, int bx, int by, double bz, int argb,
+                          int left, int top, int right, int bottom) {
+        int dx = bx - ax;
+        int dy = by - ay;
+        int steps = Math.max(Math.abs(dx), Math.abs(dy));
+
+        // Range of the line, as a fraction of its length, that rounds to
+        // pixels inside the tile
+        double from = 0;
+        double to = 1;
+        if (dx != 0) {
+            double t0 = (left - 0.5 - ax) / dx;
+            double t1 = (right - 0.5 - ax) / dx;
+            from = Math.max(from, Math.min(t0, t1));
+            to = Math.min(to, Math.max(t0, t1));
+        } else if (ax < left || ax >= right) {
+            return;
+        }
+        if (dy != 0) {
+            double t0 = (top - 0.5 - ay) / dy;
+            double t1 = (bottom - 0.5 - ay) / dy;
+            from = Math.max(from, Math.min(t0, t1));
+            to = Math.min(to, Math.max(t0, t1));
+        } else if (ay < top || ay >= bottom) {
+            return;
+        }
+        if (from > to) {
+            return;
+        }
+
+        int first = steps == 0 ? 0 : (int) Math.floor(from * steps);
+        int last = steps == 0 ? 0 : (int) Math.ceil(to * steps);
+        boolean opaque = argb >>> 24 == 255;
+        for (int s = Math.max(0, first); s <= Math.min(steps, last); s++) {
+            double t = steps == 0 ? 0 : (double) s / steps;
+            int x = (int) Math.round(ax + dx * t);
+            int y = (int) Math.round(ay + dy * t);
+            if (x < left || x >= right || y < top || y >= bottom) {
+                continue;
+            }
+            int p = y * width + x;
+            if (az + (bz - az) * t - LINE_DEPTH_BIAS <= depthBuffer[p]) {
+                pixels[p] = opaque ? argb : blend(pixels[p], argb);
+            }
+        }
+    }
+
+    // Source-over blending of two non-premultiplied ARGB colors
+    private static int blend(int dst, int src) {
+        int srcAlpha = src >>> 24;
+        if (srcAlpha == 0) {
+            return dst;
+        }
+        int dstAlpha = (dst >>> 24) * (255 - srcAlpha) / 255;
+        int outAlpha = srcAlpha + dstAlpha;
+        int r = (((src >> 16) & 0xFF) * srcAlpha + ((dst >> 16) & 0xFF) * dstAlpha) / outAlpha;
+        int g = (((src >> 8) & 0xFF) * srcAlpha + ((dst >> 8) & 0xFF) * dstAlpha) / outAlpha;
+        int b = ((src & 0xFF) * srcAlpha + (dst & 0xFF) * dstAlpha) / outAlpha;
+        return outAlpha << 24 | r << 16 | g << 8 | b;
+    }
+
+    // Draws a run of tiles, splitting it between threads
+    private class TileTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        TileTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int tile = from; tile < to; tile++) {
+                    renderTile(tile);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(from, middle), new TileTask(middle, to));
+        }
+    }
+}
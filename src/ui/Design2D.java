@@ -2,8 +2,7 @@ import javax.swing.*;
 import javax.swing.plaf.PanelUI;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
 
 public class Design2D extends JFrame {
     // UI Components from UI Designer
@@ -25,10 +24,32 @@ public class Design2D extends JFrame {
     // Design state
     private Room currentRoom;
     private Design currentDesign;
-    private List<FurnitureItem> furnitureItems = new ArrayList<>();
     private FurnitureItem selectedItem = null;
     private Color currentFurnitureColor = Color.ORANGE;
 
+    // Room floor as last drawn, in panel coordinates
+    private RoomOutline roomOutline;
+    private final FloorPlanLayer floorPlan = new FloorPlanLayer();
+    private final CollisionEngine collisionEngine = new CollisionEngine();
+    // Where the selected item was when the drag started
+    private Point dragStart;
+    // Items drawn with the collision tint in the last paint
+    private BitSet paintedCollisions;
+    // Collisions as last found, kept until the furniture or room changes
+    private BitSet collisions;
+    private FurnitureStore collisionsStore;
+    private int collisionsModCount;
+    private RoomOutline collisionsOutline;
+    // Latest pointer position of a drag, applied once per frame
+    private Point pendingDrag;
+    private final FrameScheduler frames = new FrameScheduler(this::applyPendingDrag);
+    // Paint timings, shown in a corner of the plan with F3 and refreshed on
+    // their own so drag repaints stay small
+    private static final int HUD_REFRESH_MS = 250;
+    private final RenderStats stats = new RenderStats("2D plan");
+    private final Timer hudTimer = new Timer(HUD_REFRESH_MS, e -> refreshHud());
+    private boolean showHud;
+
     public Design2D() {
         // First, check if there's a current design in the DesignManager
         currentDesign = DesignManager.getCurrentDesign();
@@ -36,8 +57,6 @@ public class Design2D extends JFrame {
         // If there's a current design, use its room
         if (currentDesign != null) {
             currentRoom = currentDesign.getRoom();
-            // Important: Load the furniture items from the design
-            loadFurnitureFromDesign();
         } else {
             // No existing design, get the current room from RoomManager
             currentRoom = RoomManager.getCurrentRoom();
@@ -79,19 +98,6 @@ public class Design2D extends JFrame {
         });
     }
 
-    // New method to load furniture items from the design
-    private void loadFurnitureFromDesign() {
-        if (currentDesign != null) {
-            // Clear the current furniture list
-            furnitureItems.clear();
-
-            // Add all items from the current design to our furniture list
-            for (FurnitureItem item : currentDesign.getItems()) {
-                furnitureItems.add(item);
-            }
-        }
-    }
-
     private void updateRoomInformation() {
         // Update dimension and shape labels with current room information
         if (dimentionLabel != null && currentRoom != null) {
@@ -141,8 +147,41 @@ public class Design2D extends JFrame {
                 @Override
                 public void paint(Graphics g, JComponent c) {
                     super.paint(g, c);
+                    Rectangle clip = g.getClipBounds();
+                    if (showHud && clip != null && getHudBounds().contains(clip)) {
+                        // Only the HUD is being refreshed; not a frame of the plan
+                        drawRoom(g);
+                        drawFurniture(g);
+                        drawHud(g);
+                        return;
+                    }
+                    stats.beginFrame();
+                    stats.stage(RenderStats.ROOM);
                     drawRoom(g);
-                    drawFurniture(g);
+                    stats.stage(RenderStats.FURNITURE);
+                    int drawn = drawFurniture(g);
+                    if (showHud) {
+                        stats.stage(RenderStats.OVERLAY);
+                        drawHud(g);
+                    }
+                    stats.endFrame(drawn);
+                }
+            });
+
+            // F3 shows and hides the performance HUD
+            roomPanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                    .put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleHud");
+            roomPanel.getActionMap().put("toggleHud", new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    showHud = !showHud;
+                    stats.reset();
+                    if (showHud) {
+                        hudTimer.start();
+                    } else {
+                        hudTimer.stop();
+                    }
+                    roomPanel.repaint();
                 }
             });
 
@@ -151,6 +190,13 @@ public class Design2D extends JFrame {
                 @Override
                 public void mousePressed(MouseEvent e) {
                     selectFurnitureAt(e.getX(), e.getY());
+                    dragStart = selectedItem != null ? selectedItem.getPosition() : null;
+                }
+
+                @Override
+                public void mouseReleased(MouseEvent e) {
+                    frames.flush();
+                    dropSelectedItem();
                 }
             });
 
@@ -158,8 +204,8 @@ public class Design2D extends JFrame {
                 @Override
                 public void mouseDragged(MouseEvent e) {
                     if (selectedItem != null) {
-                        selectedItem.setPosition(new Point(e.getX(), e.getY()));
-                        roomPanel.repaint();
+                        pendingDrag = e.getPoint();
+                        frames.requestFrame();
                     }
                 }
             });
@@ -224,8 +270,8 @@ public class Design2D extends JFrame {
                         JOptionPane.YES_NO_OPTION);
 
                 if (result == JOptionPane.YES_OPTION) {
-                    furnitureItems.clear();
                     currentDesign = new Design("New Design", currentRoom);
+                    selectedItem = null;
                     roomPanel.repaint();
                 }
             });
@@ -264,313 +310,102 @@ public class Design2D extends JFrame {
         Graphics2D g2d = (Graphics2D) g.create();
 
         try {
-            int panelWidth = roomPanel.getWidth();
-            int panelHeight = roomPanel.getHeight();
-
-            if (panelWidth <= 0 || panelHeight <= 0) return;
-
-            // Draw a border around the panel to make it visible
-            g2d.setColor(Color.LIGHT_GRAY);
-            g2d.drawRect(0, 0, panelWidth-1, panelHeight-1);
-
-            // Calculate the size of the room to fit panel
-            int maxSize = Math.min(panelWidth - 60, panelHeight - 60);
-
-            if (maxSize <= 0) return;
-
-            // Get the room's shape
-            String roomShape = currentRoom.getShape().toLowerCase();
-
-            // Draw the room based on its shape
-            g2d.setColor(currentRoom.getFloorColor());
-
-            switch (roomShape) {
-                case "rectangle":
-                    drawRectangularRoom(g2d, panelWidth, panelHeight, maxSize);
-                    break;
-                case "l-shape":
-                case "l-shaped":
-                case "l shape":
-                case "l shaped":
-                case "l":
-                    drawLShapedRoom(g2d, panelWidth, panelHeight, maxSize);
-                    break;
-                case "t-shape":
-                case "t-shaped":
-                case "t shape":
-                case "t shaped":
-                case "t":
-                    drawTShapedRoom(g2d, panelWidth, panelHeight, maxSize);
-                    break;
-                default:
-                    // Default to square for unknown shapes
-                    System.out.println("\n=== ROOM DEBUG INFO 1 ===");
-                    int x = (panelWidth - maxSize) / 2;
-                    int y = (panelHeight - maxSize) / 2;
-                    g2d.fillRect(x, y, maxSize, maxSize);
-                    g2d.setColor(Color.BLACK);
-                    g2d.drawRect(x, y, maxSize, maxSize);
+            // Copied from the cached layer unless the room or panel changed
+            RoomOutline outline = floorPlan.paint(g2d, currentRoom,
+                    roomPanel.getWidth(), roomPanel.getHeight(), roomPanel.getBackground());
+            if (outline != null) {
+                roomOutline = outline;
             }
-
-            // Draw a coordinate system to help debug
-            g2d.setColor(Color.GRAY);
-            g2d.drawLine(panelWidth/2, 0, panelWidth/2, panelHeight);
-            g2d.drawLine(0, panelHeight/2, panelWidth, panelHeight/2);
         } finally {
             g2d.dispose();
         }
     }
 
-    private void drawRectangularRoom(Graphics2D g2d, int panelWidth, int panelHeight, int maxSize) {
-        if (currentRoom == null) return;
-
-        // Get actual dimensions from the room
-        double roomWidth = currentRoom.getWidth();
-        double roomLength = currentRoom.getLength();
+    // Returns how many items were drawn
+    private int drawFurniture(Graphics g) {
+        // Make sure we have furniture to draw
+        FurnitureStore furniture = currentDesign != null ? currentDesign.getFurniture() : null;
+        if (furniture == null || furniture.size() == 0) {
+            if (RenderStats.isLogging()) {
+                System.out.println("No furniture items to draw");
+            }
+            return 0;
+        }
 
-        // Calculate the aspect ratio (width:length)
-        double aspectRatio = roomWidth / roomLength;
+        int selected = furniture.indexOf(selectedItem);
+        BitSet colliding = findCollisions(furniture);
+        int drawn = PlanRenderingUtil.drawFurniture(g, furniture, selected, colliding);
+        paintedCollisions = colliding;
+        return drawn;
+    }
 
-        // Initialize display dimensions
-        int displayWidth, displayHeight;
+    private void drawHud(Graphics g) {
+        Rectangle hud = getHudBounds();
+        UIRenderingUtil.drawPerformanceHud((Graphics2D) g, stats, hud.x, hud.y);
+    }
 
-        // Determine which dimension should be set to maxSize
-        if (aspectRatio > 1.0) {
-            // Room is wider than long
-            displayWidth = maxSize;
-            displayHeight = (int)(maxSize / aspectRatio);
-        } else {
-            // Room is longer than wide
-            displayHeight = maxSize;
-            displayWidth = (int)(maxSize * aspectRatio);
+    private void refreshHud() {
+        if (!roomPanel.isShowing()) {
+            // The editor was closed
+            hudTimer.stop();
+            return;
         }
+        roomPanel.repaint(getHudBounds());
+    }
 
-        // Make sure neither dimension exceeds panel constraints
-        if (displayWidth > panelWidth - 60) {
-            displayWidth = panelWidth - 60;
-            displayHeight = (int)(displayWidth / aspectRatio);
-        }
+    // Where the performance HUD goes: the top right corner of the plan
+    private Rectangle getHudBounds() {
+        return new Rectangle(roomPanel.getWidth() - UIRenderingUtil.HUD_WIDTH - 10, 10,
+                UIRenderingUtil.HUD_WIDTH, UIRenderingUtil.HUD_HEIGHT);
+    }
 
-        if (displayHeight > panelHeight - 60) {
-            displayHeight = panelHeight - 60;
-            displayWidth = (int)(displayHeight * aspectRatio);
+    // Finds the colliding items, reusing the last result while neither the
+    // furniture nor the room outline has changed, so a drag frame and the
+    // paint that follows it check collisions once. Callers must not modify it.
+    private BitSet findCollisions(FurnitureStore furniture) {
+        if (collisions == null || furniture != collisionsStore
+                || furniture.getModCount() != collisionsModCount || roomOutline != collisionsOutline) {
+            collisions = collisionEngine.findCollisions(furniture, roomOutline);
+            collisionsStore = furniture;
+            collisionsModCount = furniture.getModCount();
+            collisionsOutline = roomOutline;
         }
-
-        // Center the room in the panel
-        int x = (panelWidth - displayWidth) / 2;
-        int y = (panelHeight - displayHeight) / 2;
-
-        // Draw the room
-        g2d.fillRect(x, y, displayWidth, displayHeight);
-
-        // Add a border
-        g2d.setColor(Color.BLACK);
-        g2d.drawRect(x, y, displayWidth, displayHeight);
-
-        // Add dimension labels for clarity
-        g2d.setFont(new Font("Arial", Font.PLAIN, 12));
-        FontMetrics fm = g2d.getFontMetrics();
-
-        // Width label (horizontal)
-        String widthLabel = String.format("%.1fm", roomWidth);
-        int textWidth = fm.stringWidth(widthLabel);
-        g2d.drawString(widthLabel, x + (displayWidth - textWidth) / 2, y - 5);
-
-        // Length label (vertical)
-        String lengthLabel = String.format("%.1fm", roomLength);
-        g2d.drawString(lengthLabel, x - fm.stringWidth(lengthLabel) - 5, y + displayHeight / 2);
+        return collisions;
     }
 
-    private void drawLShapedRoom(Graphics2D g2d, int panelWidth, int panelHeight, int maxSize) {
-        int baseSize = (int)(maxSize * 0.8);
-        int extension = (int)(maxSize * 0.4);
-
-        int x = (panelWidth - baseSize) / 2;
-        int y = (panelHeight - baseSize) / 2;
-
-        // Draw L-shape using two rectangles
-        // Main rectangle
-        g2d.fillRect(x, y, baseSize, baseSize);
-
-        // Extension rectangle (to form the L)
-        g2d.fillRect(x - extension, y + baseSize - extension, extension, extension);
-
-        // Draw border
-        g2d.setColor(Color.BLACK);
-        // Draw the outer L shape border
-        g2d.drawRect(x, y, baseSize, baseSize);
-        g2d.drawRect(x - extension, y + baseSize - extension, extension, extension);
-
-        // Draw the inner corner edge (to complete the L shape)
-        g2d.drawLine(x, y + baseSize - extension, x, y + baseSize);
-        g2d.drawLine(x, y + baseSize - extension, x - extension, y + baseSize - extension);
+    // Moves the selected item to where the pointer was last dragged
+    private void applyPendingDrag() {
+        if (pendingDrag != null && selectedItem != null) {
+            moveSelectedItem(pendingDrag.x, pendingDrag.y);
+        }
+        pendingDrag = null;
     }
 
-    private void drawTShapedRoom(Graphics2D g2d, int panelWidth, int panelHeight, int maxSize) {
-        int baseWidth = (int)(maxSize * 0.8);
-        int baseHeight = (int)(maxSize * 0.6);
-        int topWidth = (int)(maxSize * 0.4);
-        int topHeight = (int)(maxSize * 0.4);
-
-        int baseX = (panelWidth - baseWidth) / 2;
-        int baseY = (panelHeight - baseHeight + topHeight) / 2;
-        int topX = (panelWidth - topWidth) / 2;
-        int topY = baseY - topHeight;
-
-        // Draw T-shape using two rectangles
-        // Horizontal bar of T
-        g2d.fillRect(baseX, baseY, baseWidth, baseHeight);
+    // Moves the selected item and repaints only what changed: where it was,
+    // where it is now, and items that started or stopped colliding
+    private void moveSelectedItem(int x, int y) {
+        FurnitureStore furniture = currentDesign.getFurniture();
+        int index = furniture.indexOf(selectedItem);
+        FontMetrics fm = roomPanel.getFontMetrics(roomPanel.getFont());
+        Rectangle before = index >= 0 ? PlanRenderingUtil.getItemBounds(furniture, index, fm) : null;
 
-        // Vertical bar of T
-        g2d.fillRect(topX, topY, topWidth, topHeight);
+        selectedItem.setPosition(new Point(x, y));
 
-        // Draw border
-        g2d.setColor(Color.BLACK);
-        g2d.drawRect(baseX, baseY, baseWidth, baseHeight);
-        g2d.drawRect(topX, topY, topWidth, topHeight);
-
-        // Draw connecting lines to complete the shape
-        g2d.drawLine(topX, baseY, baseX, baseY);
-        g2d.drawLine(topX + topWidth, baseY, baseX + baseWidth, baseY);
-    }
-
-    private void drawFurniture(Graphics g) {
-        // Make sure we have furniture to draw
-        if (furnitureItems == null || furnitureItems.isEmpty()) {
-            System.out.println("No furniture items to draw");
+        Rectangle after = index >= 0 ? PlanRenderingUtil.getItemBounds(furniture, index, fm) : null;
+        if (before == null || after == null || paintedCollisions == null) {
+            roomPanel.repaint();
             return;
         }
-
-        // Iterate through each furniture item and draw it
-        for (FurnitureItem item : furnitureItems) {
-            if (item == null) continue;
-
-            Point pos = item.getPosition();
-            Dimension size = item.getSize();
-
-            if (pos == null || size == null) continue;
-
-            // Draw the furniture based on its type
-            switch (item.getType()) {
-                case CHAIR:
-                    drawChair(g, item);
-                    break;
-                case DINING_TABLE:
-                    drawDiningTable(g, item);
-                    break;
-                case SIDE_TABLE:
-                    drawSideTable(g, item);
-                    break;
-                default:
-                    // Default drawing for unknown types
-                    g.setColor(item.getColor());
-                    g.fillRect(pos.x, pos.y, size.width, size.height);
+        Rectangle damage = before.union(after);
+        BitSet changed = (BitSet) findCollisions(furniture).clone();
+        changed.xor(paintedCollisions);
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            Rectangle bounds = i < furniture.size() ? PlanRenderingUtil.getItemBounds(furniture, i, fm) : null;
+            if (bounds != null) {
+                damage = damage.union(bounds);
             }
-
-            // Highlight selected item
-            if (item == selectedItem) {
-                g.setColor(Color.RED);
-                g.drawRect(pos.x - 2, pos.y - 2, size.width + 4, size.height + 4);
-            }
-
-            // Draw label
-            g.setColor(Color.BLACK);
-            g.drawString(item.getType().getDisplayName(), pos.x, pos.y - 5);
         }
-    }
-
-    // Draw a chair with a more realistic shape
-    private void drawChair(Graphics g, FurnitureItem item) {
-        Point pos = item.getPosition();
-        Dimension size = item.getSize();
-        Color color = item.getColor();
-
-        // Use darker color for chair legs and back
-        Color darkerColor = new Color(
-                Math.max((int)(color.getRed() * 0.7), 0),
-                Math.max((int)(color.getGreen() * 0.7), 0),
-                Math.max((int)(color.getBlue() * 0.7), 0)
-        );
-
-        // Chair seat
-        g.setColor(color);
-        g.fillRect(pos.x, pos.y, size.width, size.height);
-
-        // Chair back
-        int backHeight = (int)(size.height * 0.8);
-        g.setColor(darkerColor);
-        g.fillRect(pos.x, pos.y - backHeight, size.width/3, backHeight);
-
-        // Chair legs - just small rectangles at corners
-        int legWidth = size.width/8;
-        int legHeight = size.height/4;
-
-        g.setColor(darkerColor);
-        // Front legs
-        g.fillRect(pos.x, pos.y + size.height, legWidth, legHeight);
-        g.fillRect(pos.x + size.width - legWidth, pos.y + size.height, legWidth, legHeight);
-
-        // Back legs - extend from the back
-        g.fillRect(pos.x, pos.y + size.height, legWidth, legHeight);
-        g.fillRect(pos.x + size.width/3 - legWidth, pos.y + size.height, legWidth, legHeight);
-    }
-
-    // Draw a dining table with more details
-    private void drawDiningTable(Graphics g, FurnitureItem item) {
-        Point pos = item.getPosition();
-        Dimension size = item.getSize();
-        Color color = item.getColor();
-
-        // Darker color for table legs
-        Color darkerColor = new Color(
-                Math.max((int)(color.getRed() * 0.7), 0),
-                Math.max((int)(color.getGreen() * 0.7), 0),
-                Math.max((int)(color.getBlue() * 0.7), 0)
-        );
-
-        // Tabletop
-        g.setColor(color);
-        g.fillRect(pos.x, pos.y, size.width, size.height);
-        g.setColor(Color.BLACK);
-        g.drawRect(pos.x, pos.y, size.width, size.height);
-
-        // Table legs
-        int legWidth = size.width/10;
-        int legHeight = size.height/3;
-
-        g.setColor(darkerColor);
-        // Draw four legs at corners
-        g.fillRect(pos.x + legWidth, pos.y + size.height, legWidth, legHeight);
-        g.fillRect(pos.x + size.width - 2*legWidth, pos.y + size.height, legWidth, legHeight);
-        g.fillRect(pos.x + legWidth, pos.y + size.height, legWidth, legHeight);
-        g.fillRect(pos.x + size.width - 2*legWidth, pos.y + size.height, legWidth, legHeight);
-    }
-
-    // Draw a side table with details
-    private void drawSideTable(Graphics g, FurnitureItem item) {
-        Point pos = item.getPosition();
-        Dimension size = item.getSize();
-        Color color = item.getColor();
-
-        // Tabletop
-        g.setColor(color);
-        g.fillRect(pos.x, pos.y, size.width, size.height);
-        g.setColor(Color.BLACK);
-        g.drawRect(pos.x, pos.y, size.width, size.height);
-
-        // Central leg or support
-        int legWidth = size.width/3;
-        int legHeight = size.height/3;
-
-        g.setColor(new Color(
-                Math.max((int)(color.getRed() * 0.8), 0),
-                Math.max((int)(color.getGreen() * 0.8), 0),
-                Math.max((int)(color.getBlue() * 0.8), 0)
-        ));
-
-        // Central support
-        int centerX = pos.x + (size.width - legWidth)/2;
-        g.fillRect(centerX, pos.y + size.height, legWidth, legHeight);
+        roomPanel.repaint(damage);
     }
 
     private void addSelectedFurniture() {
@@ -604,7 +439,6 @@ public class Design2D extends JFrame {
         }
 
         FurnitureItem newItem = new FurnitureItem(type, size, position, currentFurnitureColor);
-        furnitureItems.add(newItem);
         currentDesign.addItem(newItem);
 
         // Select the new item
@@ -613,20 +447,32 @@ public class Design2D extends JFrame {
         roomPanel.repaint();
     }
 
-    private void selectFurnitureAt(int x, int y) {
-        selectedItem = null;
+    // Puts a dragged item back where it came from if it was dropped on
+    // other furniture or outside the room, unless it was already colliding
+    // there (newly added items start in the middle of the room)
+    private void dropSelectedItem() {
+        if (selectedItem == null || dragStart == null || dragStart.equals(selectedItem.getPosition())) {
+            return;
+        }
+        FurnitureStore furniture = currentDesign.getFurniture();
+        int index = furniture.indexOf(selectedItem);
+        if (index < 0 || !collisionEngine.collides(furniture, index, roomOutline)) {
+            return;
+        }
+        Point drop = selectedItem.getPosition();
+        selectedItem.setPosition(dragStart);
+        if (collisionEngine.collides(furniture, index, roomOutline)) {
+            selectedItem.setPosition(drop);
+        }
+        dragStart = null;
+        roomPanel.repaint();
+    }
 
+    private void selectFurnitureAt(int x, int y) {
         // Check if a furniture item was clicked
-        for (FurnitureItem item : furnitureItems) {
-            Point pos = item.getPosition();
-            Dimension size = item.getSize();
-
-            if (x >= pos.x && x <= pos.x + size.width &&
-                    y >= pos.y && y <= pos.y + size.height) {
-                selectedItem = item;
-                break;
-            }
-        }
+        FurnitureStore furniture = currentDesign.getFurniture();
+        int index = furniture.indexAt(x, y);
+        selectedItem = index >= 0 ? furniture.item(index) : null;
 
         roomPanel.repaint();
     }
@@ -1,6 +1,7 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 
 public class Design3D extends JFrame {
     public JPanel mainPanel;
@@ -25,6 +26,23 @@ public class Design3D extends JFrame {
     // Lighting settings for 3D effect
     private boolean lightingEnabled = true;
 
+    // Faces collected each frame and painted back to front
+    private final FaceBuffer faces = new FaceBuffer();
+
+    // Drops to quick draft frames while the view is being rotated
+    private final AdaptiveQuality quality = new AdaptiveQuality(() -> renderPanel.repaint());
+
+    // Repaints at most once per display frame however fast the mouse moves
+    private final FrameScheduler frames = new FrameScheduler(() -> renderPanel.repaint());
+
+    // Paint timings, shown in a corner of the view with F3
+    private final RenderStats stats = new RenderStats("3D view");
+    private boolean showHud;
+
+    // Optional multi-threaded software renderer, switched with the R key
+    private boolean softwareRendering;
+    private TileRasterizer rasterizer;
+
     public Design3D() {
         // Get the current design
         currentDesign = DesignManager.getCurrentDesign();
@@ -101,14 +119,15 @@ public class Design3D extends JFrame {
                     super.paintComponent(g);
                     if (currentDesign != null) {
                         Graphics2D g2d = (Graphics2D) g;
-                        // Enable anti-aliasing for smoother lines
-                        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                                RenderingHints.VALUE_ANTIALIAS_ON);
-                        g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
-                                RenderingHints.VALUE_STROKE_PURE);
+                        // Anti-aliasing and detail only when not dragging
+                        boolean fullQuality = quality.beginFrame(g2d);
+                        long start = System.nanoTime();
+                        stats.beginFrame();
 
                         // Draw the 3D room and furniture
-                        draw3DRoom(g2d);
+                        draw3DRoom(g2d, fullQuality);
+                        stats.endFrame(currentDesign.getFurniture().size());
+                        quality.endFrame(System.nanoTime() - start);
                     }
                 }
             };
@@ -125,6 +144,29 @@ public class Design3D extends JFrame {
                 }
             });
 
+            // R switches between Java2D and the tile rasterizer
+            customRenderPanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                    .put(KeyStroke.getKeyStroke(KeyEvent.VK_R, 0), "toggleRenderer");
+            customRenderPanel.getActionMap().put("toggleRenderer", new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    softwareRendering = !softwareRendering;
+                    customRenderPanel.repaint();
+                }
+            });
+
+            // F3 shows and hides the performance HUD
+            customRenderPanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                    .put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleHud");
+            customRenderPanel.getActionMap().put("toggleHud", new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    showHud = !showHud;
+                    stats.reset();
+                    customRenderPanel.repaint();
+                }
+            });
+
             customRenderPanel.addMouseMotionListener(new MouseAdapter() {
                 @Override
                 public void mouseDragged(MouseEvent e) {
@@ -136,7 +178,8 @@ public class Design3D extends JFrame {
                         // Constrain rotation X to prevent weird views
                         rotationX = Math.max(0, Math.min(90, rotationX));
                         lastMousePos = e.getPoint();
-                        customRenderPanel.repaint();
+                        quality.interacting();
+                        frames.requestFrame();
                     }
                 }
             });
@@ -187,16 +230,14 @@ public class Design3D extends JFrame {
         }
     }
 
-    private void draw3DRoom(Graphics2D g2d) {
+    private void draw3DRoom(Graphics2D g2d, boolean fullQuality) {
         if (currentDesign == null || renderPanel == null) return;
 
         Room room = currentDesign.getRoom();
         if (room == null) return;
 
-        // Calculate room dimensions
-        double width = room.getWidth() * 50 * scale; // Scale to pixels
-        double length = room.getLength() * 50 * scale;
-        double height = room.getHeight() * 50 * scale;
+        // One camera per frame; zoom is folded into its matrix
+        Camera camera = new Camera(rotationX, rotationY, scale);
 
         // Calculate center point of panel
         int centerX = renderPanel.getWidth() / 2;
@@ -208,42 +249,40 @@ public class Design3D extends JFrame {
         // Draw a sky/background gradient
         UIRenderingUtil.drawBackground(g2d, centerX, centerY);
 
-        // Draw room based on shape
-        String roomShape = room.getShape().toLowerCase();
-        if (roomShape.contains("l shape")) {
-            RoomRenderingUtil.drawLShapedRoom3D(g2d, room, width, length, height,
-                    rotationX, rotationY, lightingEnabled);
-        } else if (roomShape.contains("t shape")) {
-            RoomRenderingUtil.drawTShapedRoom3D(g2d, room, width, length, height,
-                    rotationX, rotationY, lightingEnabled);
-        } else {
-            // Default rectangular room
-            RoomRenderingUtil.drawRectangularRoom3D(g2d, room, width, length, height,
-                    rotationX, rotationY, lightingEnabled);
-        }
+        // Collect room and furniture faces
+        faces.begin(camera);
+        faces.setDetailed(fullQuality);
+        stats.stage(RenderStats.ROOM);
+        DesignRenderer.addRoomFaces(faces, currentDesign, camera, lightingEnabled);
+        stats.stage(RenderStats.FURNITURE);
+        DesignRenderer.addFurnitureFaces(faces, currentDesign, camera, lightingEnabled);
+        stats.stage(RenderStats.RASTER);
 
-        // Draw furniture
-        for (FurnitureItem item : currentDesign.getItems()) {
-            switch (item.getType()) {
-                case CHAIR:
-                    FurnitureRenderingUtil.drawChair3D(g2d, item, scale, rotationX, rotationY, lightingEnabled);
-                    break;
-                case DINING_TABLE:
-                    FurnitureRenderingUtil.drawDiningTable3D(g2d, item, scale, rotationX, rotationY, lightingEnabled);
-                    break;
-                case SIDE_TABLE:
-                    FurnitureRenderingUtil.drawSideTable3D(g2d, item, scale, rotationX, rotationY, lightingEnabled);
-                    break;
-                default:
-                    FurnitureRenderingUtil.drawGenericFurniture3D(g2d, item, scale, rotationX, rotationY, lightingEnabled);
+        if (softwareRendering) {
+            // Rasterize on the worker threads, then copy the frame over the background
+            if (rasterizer == null) {
+                rasterizer = new TileRasterizer();
             }
+            BufferedImage frame = rasterizer.render(faces, renderPanel.getWidth(), renderPanel.getHeight(),
+                    centerX, centerY);
+            g2d.drawImage(frame, -centerX, -centerY, null);
+            faces.paintLabels(g2d);
+        } else {
+            // Paint what can be seen, furthest first
+            faces.paint(g2d);
         }
 
         // Draw a legend with room info and view controls
-        UIRenderingUtil.drawLegend(g2d, room, centerX, centerY);
+        stats.stage(RenderStats.OVERLAY);
+        UIRenderingUtil.drawLegend(g2d, room, centerX, centerY,
+                softwareRendering ? "Renderer: tiles (R for Java2D)" : "Renderer: Java2D (R for tiles)");
 
         // Draw compass to help with orientation (in bottom right corner)
         UIRenderingUtil.drawCompass(g2d, centerX - 50, centerY - 50, rotationY);
+
+        if (showHud) {
+            UIRenderingUtil.drawPerformanceHud(g2d, stats, centerX - UIRenderingUtil.HUD_WIDTH - 10, -centerY + 10);
+        }
     }
 }
 
@@ -2,7 +2,10 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ManageDesign extends JFrame {
@@ -17,6 +20,12 @@ public class ManageDesign extends JFrame {
      private final Color VIEW_3D_BUTTON_COLOR = new Color(153, 76, 0);
      private final Color DELETE_BUTTON_COLOR = new Color(100, 0, 0);
 
+     // Reused for every row painted; only touched on the event dispatch thread
+     private final java.text.SimpleDateFormat dateFormat = new java.text.SimpleDateFormat("dd MMM, yyyy");
+
+     private JList<DesignSummary> designList;
+     private DesignListModel designModel;
+
      public ManageDesign() {
           // Set layout for list panel
           listPanel.setLayout(new BoxLayout(listPanel, BoxLayout.Y_AXIS));
@@ -61,123 +70,273 @@ public class ManageDesign extends JFrame {
      }
 
      private void loadSavedDesigns() {
-          // Get all saved designs
-          List<Design> designs = DesignManager.getSavedDesigns();
+          // Get all saved designs, most recently modified first
+          List<DesignSummary> designs = DesignManager.getDesignsByRecent();
 
           if (designs.isEmpty()) {
-               // Display message if no designs found
-               JLabel noDesignsLabel = new JLabel("No saved designs found.");
-               noDesignsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-               noDesignsLabel.setFont(new Font("Arial", Font.BOLD, 14));
-               noDesignsLabel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
-               listPanel.add(noDesignsLabel);
-          } else {
-               // Add a title
-               JLabel titleLabel = new JLabel("Saved Designs");
-               titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-               titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
-               titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 20, 0));
-               listPanel.add(titleLabel);
-
-               // Add each design to the list
-               for (Design design : designs) {
-                    addDesignPanel(design);
-               }
+               showNoDesigns();
+               return;
           }
-     }
 
-     private void addDesignPanel(Design design) {
-          // Create a panel for this design with gray background
-          JPanel designPanel = new JPanel();
-          designPanel.setLayout(new BorderLayout(10, 0));
-          designPanel.setBackground(LIGHT_GRAY);
-          designPanel.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
-
-          // Design info panel on the left
-          JPanel infoPanel = new JPanel(new GridLayout(3, 1, 0, 5));
-          infoPanel.setBackground(LIGHT_GRAY);
-
-          Room room = design.getRoom();
-          String roomInfo = String.format("Room : Rectangle( %.1fm x %.1fm x %.1fm )",
-                  room.getWidth(),
-                  room.getLength(),
-                  room.getHeight()
-          );
+          // Add a title
+          JLabel titleLabel = new JLabel("Saved Designs");
+          titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+          titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
+          titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 20, 0));
+          listPanel.add(titleLabel);
+
+          // Only the rows in view are ever painted, all with the one renderer
+          designModel = new DesignListModel(designs);
+          designList = new JList<>(designModel);
+          DesignCellRenderer renderer = new DesignCellRenderer();
+          designList.setCellRenderer(renderer);
+          designList.setFixedCellHeight(renderer.getPreferredSize().height);
+          designList.setVisibleRowCount(3);
+          designList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+          // The buttons in a row are only painted, so clicks are mapped to them
+          designList.addMouseListener(new MouseAdapter() {
+               @Override
+               public void mouseClicked(MouseEvent e) {
+                    int index = designList.locationToIndex(e.getPoint());
+                    JButton button = buttonAt(renderer, index, e.getPoint());
+                    if (button == null) return;
+                    DesignSummary design = designModel.getElementAt(index);
+                    if (button == renderer.editButton) {
+                         editDesign(design);
+                    } else if (button == renderer.view3DButton) {
+                         viewDesign3D(design);
+                    } else {
+                         deleteDesign(design);
+                    }
+               }
+          });
+          designList.addMouseMotionListener(new MouseAdapter() {
+               @Override
+               public void mouseMoved(MouseEvent e) {
+                    int index = designList.locationToIndex(e.getPoint());
+                    designList.setCursor(buttonAt(renderer, index, e.getPoint()) != null
+                            ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+               }
+          });
+
+          JScrollPane scrollPane = new JScrollPane(designList);
+          scrollPane.setBorder(BorderFactory.createEmptyBorder());
+          scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+          listPanel.add(scrollPane);
+     }
 
-          JLabel nameLabel = new JLabel("Name : " + design.getName());
-          nameLabel.setFont(new Font("Arial", Font.BOLD, 14));
+     private void showNoDesigns() {
+          // Display message if no designs found
+          JLabel noDesignsLabel = new JLabel("No saved designs found.");
+          noDesignsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+          noDesignsLabel.setFont(new Font("Arial", Font.BOLD, 14));
+          noDesignsLabel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
+          listPanel.add(noDesignsLabel);
+     }
 
-          JLabel roomLabel = new JLabel(roomInfo);
-          roomLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+     // Returns the button of row index under point, or null
+     private JButton buttonAt(DesignCellRenderer renderer, int index, Point point) {
+          Rectangle cell = index >= 0 ? designList.getCellBounds(index, index) : null;
+          if (cell == null || !cell.contains(point)) {
+               return null;
+          }
+          // Lay the renderer out as that row to see what is under the point
+          renderer.getListCellRendererComponent(designList, designModel.getElementAt(index), index, false, false);
+          renderer.setBounds(0, 0, cell.width, cell.height);
+          layOut(renderer);
+          Component hit = SwingUtilities.getDeepestComponentAt(renderer, point.x - cell.x, point.y - cell.y);
+          return hit instanceof JButton ? (JButton) hit : null;
+     }
 
-          String formattedDate = formatDate(design.getLastModifiedDate());
-          JLabel dateLabel = new JLabel("Modified : " + formattedDate);
-          dateLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+     // Lays out a container and everything in it. The renderer is not in a
+     // window between paints, where validate() would leave it as it was.
+     private static void layOut(Container container) {
+          container.doLayout();
+          for (Component child : container.getComponents()) {
+               if (child instanceof Container) {
+                    layOut((Container) child);
+               }
+          }
+     }
 
-          infoPanel.add(nameLabel);
-          infoPanel.add(roomLabel);
-          infoPanel.add(dateLabel);
+     private void editDesign(DesignSummary design) {
+          if (!openDesign(design)) return;
+          Design2D design2D = new Design2D();
+          Helper.navigateToFrame(this, design2D, design2D.mainPanel, "Design 2D", 1000, 800);
+     }
 
-          // Buttons panel on the right with vertical layout
-          JPanel buttonPanel = new JPanel(new GridLayout(3, 1, 0, 10));
-          buttonPanel.setBackground(LIGHT_GRAY);
-          buttonPanel.setPreferredSize(new Dimension(150, 120)); // Fixed width for buttons
+     private void viewDesign3D(DesignSummary design) {
+          if (!openDesign(design)) return;
+          Design3D design3D = new Design3D();
+          Helper.navigateToFrame(this, design3D, design3D.mainPanel, "Design 3D", 1000, 800);
+     }
 
-          // Edit button (replace View button)
-          JButton editButton = createStyledButton("Edit", EDIT_BUTTON_COLOR, Color.WHITE);
-          editButton.addActionListener(e -> {
-               DesignManager.setCurrentDesign(design);
-               Design2D design2D = new Design2D();
-               Helper.navigateToFrame(this, design2D, design2D.mainPanel, "Design 2D", 1000, 800);
-          });
+     private void deleteDesign(DesignSummary design) {
+          int result = JOptionPane.showConfirmDialog(
+                  this,
+                  "Are you sure you want to delete this design?",
+                  "Delete Design",
+                  JOptionPane.YES_NO_OPTION,
+                  JOptionPane.WARNING_MESSAGE
+          );
 
-          // View 3D button with brown background
-          JButton view3DButton = createStyledButton("View 3D", VIEW_3D_BUTTON_COLOR, Color.WHITE);
-          view3DButton.addActionListener(e -> {
-               DesignManager.setCurrentDesign(design);
-               Design3D design3D = new Design3D();
-               Helper.navigateToFrame(this, design3D, design3D.mainPanel, "Design 3D", 1000, 800);
-          });
+          if (result == JOptionPane.YES_OPTION) {
+               DesignManager.deleteDesign(design.getName());
+               ThumbnailCache.remove(design.getName());
 
-          // Delete button with dark red background
-          JButton deleteButton = createStyledButton("Delete", DELETE_BUTTON_COLOR, Color.WHITE);
-          deleteButton.addActionListener(e -> {
-               int result = JOptionPane.showConfirmDialog(
-                       this,
-                       "Are you sure you want to delete this design?",
-                       "Delete Design",
-                       JOptionPane.YES_NO_OPTION,
-                       JOptionPane.WARNING_MESSAGE
-               );
-
-               if (result == JOptionPane.YES_OPTION) {
-                    DesignManager.deleteDesign(design.getName());
-
-                    // Refresh the list
+               // Only the rows below the deleted one move
+               designModel.remove(design);
+               if (designModel.getSize() == 0) {
                     listPanel.removeAll();
-                    loadSavedDesigns();
+                    showNoDesigns();
                     listPanel.revalidate();
                     listPanel.repaint();
                }
-          });
+          }
+     }
 
-          buttonPanel.add(editButton);
-          buttonPanel.add(view3DButton);
-          buttonPanel.add(deleteButton);
+     /**
+      * Saved designs in the order DesignManager listed them, minus the ones
+      * deleted since
+      */
+     private static class DesignListModel extends AbstractListModel<DesignSummary> {
+          private final List<DesignSummary> designs;
 
-          // Add panels to design panel
-          designPanel.add(infoPanel, BorderLayout.CENTER);
-          designPanel.add(buttonPanel, BorderLayout.EAST);
+          DesignListModel(List<DesignSummary> designs) {
+               this.designs = new ArrayList<>(designs);
+          }
 
-          // Add design panel to list with vertical spacing
-          JPanel wrapperPanel = new JPanel(new BorderLayout());
-          wrapperPanel.add(designPanel, BorderLayout.CENTER);
-          wrapperPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+          @Override
+          public int getSize() {
+               return designs.size();
+          }
 
-          listPanel.add(wrapperPanel);
+          @Override
+          public DesignSummary getElementAt(int index) {
+               return designs.get(index);
+          }
 
-          // Add a separator
-          listPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+          int indexOf(DesignSummary design) {
+               return designs.indexOf(design);
+          }
+
+          void remove(DesignSummary design) {
+               int index = designs.indexOf(design);
+               if (index >= 0) {
+                    designs.remove(index);
+                    fireIntervalRemoved(this, index, index);
+               }
+          }
+     }
+
+     /**
+      * Paints one row of the list: thumbnail, design details and buttons
+      */
+     private class DesignCellRenderer extends JPanel implements ListCellRenderer<DesignSummary> {
+          final JButton editButton = createStyledButton("Edit", EDIT_BUTTON_COLOR, Color.WHITE);
+          final JButton view3DButton = createStyledButton("View 3D", VIEW_3D_BUTTON_COLOR, Color.WHITE);
+          final JButton deleteButton = createStyledButton("Delete", DELETE_BUTTON_COLOR, Color.WHITE);
+          private final ThumbnailView thumbnail = new ThumbnailView();
+          private final JLabel nameLabel = new JLabel();
+          private final JLabel roomLabel = new JLabel();
+          private final JLabel dateLabel = new JLabel();
+
+          DesignCellRenderer() {
+               // Outer spacing stands in for the gap between rows
+               super(new BorderLayout());
+               setBorder(BorderFactory.createEmptyBorder(5, 10, 15, 10));
+
+               // Create a panel for this design with gray background
+               JPanel designPanel = new JPanel();
+               designPanel.setLayout(new BorderLayout(10, 0));
+               designPanel.setBackground(LIGHT_GRAY);
+               designPanel.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+
+               // Design info panel next to the thumbnail
+               JPanel infoPanel = new JPanel(new GridLayout(3, 1, 0, 5));
+               infoPanel.setBackground(LIGHT_GRAY);
+               nameLabel.setFont(new Font("Arial", Font.BOLD, 14));
+               roomLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+               dateLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+               infoPanel.add(nameLabel);
+               infoPanel.add(roomLabel);
+               infoPanel.add(dateLabel);
+
+               // Buttons panel on the right with vertical layout
+               JPanel buttonPanel = new JPanel(new GridLayout(3, 1, 0, 10));
+               buttonPanel.setBackground(LIGHT_GRAY);
+               buttonPanel.setPreferredSize(new Dimension(150, 120)); // Fixed width for buttons
+               buttonPanel.add(editButton);
+               buttonPanel.add(view3DButton);
+               buttonPanel.add(deleteButton);
+
+               // Add panels to design panel
+               designPanel.add(thumbnail, BorderLayout.WEST);
+               designPanel.add(infoPanel, BorderLayout.CENTER);
+               designPanel.add(buttonPanel, BorderLayout.EAST);
+               add(designPanel, BorderLayout.CENTER);
+          }
+
+          @Override
+          public Component getListCellRendererComponent(JList<? extends DesignSummary> list, DesignSummary design,
+                                                        int index, boolean isSelected, boolean cellHasFocus) {
+               setBackground(list.getBackground());
+
+               nameLabel.setText("Name : " + design.getName());
+               roomLabel.setText(String.format("Room : Rectangle( %.1fm x %.1fm x %.1fm )",
+                       design.getRoomWidth(),
+                       design.getRoomLength(),
+                       design.getRoomHeight()
+               ));
+               dateLabel.setText("Modified : " + formatDate(design.getLastModifiedDate()));
+
+               // Repaint just this row once a thumbnail that is not ready loads
+               thumbnail.setImage(ThumbnailCache.getThumbnail(design, image -> {
+                    int row = designModel.indexOf(design);
+                    if (row >= 0) {
+                         designList.repaint(designList.getCellBounds(row, row));
+                    }
+               }));
+               return this;
+          }
+     }
+
+     /**
+      * Thumbnail of a design, or an empty frame until it is ready
+      */
+     private class ThumbnailView extends JComponent {
+          private BufferedImage image;
+
+          ThumbnailView() {
+               setPreferredSize(new Dimension(ThumbnailCache.WIDTH, ThumbnailCache.HEIGHT));
+               setBorder(BorderFactory.createLineBorder(DARK_GREEN));
+          }
+
+          void setImage(BufferedImage image) {
+               this.image = image;
+          }
+
+          @Override
+          protected void paintComponent(Graphics g) {
+               if (image != null) {
+                    g.drawImage(image, 0, 0, getWidth(), getHeight(), null);
+               }
+          }
+     }
+
+     // Loads the full design only when the user actually opens it
+     private boolean openDesign(DesignSummary summary) {
+          Design design = summary.getDesign();
+          if (design == null) {
+               JOptionPane.showMessageDialog(this,
+                       "This design could not be loaded.",
+                       "Open Design",
+                       JOptionPane.ERROR_MESSAGE);
+               return false;
+          }
+          DesignManager.setCurrentDesign(design);
+          return true;
      }
 
      private JButton createStyledButton(String text, Color bgColor, Color fgColor) {
@@ -193,7 +352,6 @@ public class ManageDesign extends JFrame {
 
      private String formatDate(java.util.Date date) {
           // Format date to match the design (e.g., "15 APR, 2025")
-          java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd MMM, yyyy");
-          return sdf.format(date).toUpperCase();
+          return dateFormat.format(date).toUpperCase();
      }
 }
\ No newline at end of file
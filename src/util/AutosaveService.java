@@ -0,0 +1,139 @@
+import javax.swing.*;
+import java.awt.AWTEvent;
+import java.awt.GraphicsEnvironment;
+import java.awt.Toolkit;
+import java.awt.event.WindowEvent;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Saves watched designs automatically after they change.
+ *
+ * Changes are coalesced: the first change starts a timer and every further
+ * change until it fires only marks the design dirty, so a drag that moves an
+ * item hundreds of times produces one write per interval. When the timer
+ * fires the dirty designs are encoded on the event dispatch thread, where
+ * the editors change them, and the encoded records are written to disk on
+ * {@link DataManager}'s background writer.
+ *
+ * The windows close the application with System.exit, which blocks the event
+ * dispatch thread until the shutdown hooks finish, so pending changes are
+ * flushed as soon as a window starts closing, before it exits. Any other
+ * exit encodes the last changes on the event dispatch thread from the
+ * shutdown hook; if that thread does not respond, the changes are not saved
+ * rather than read while they may be changing.
+ */
+public class AutosaveService implements DesignListener {
+    public static final int DEFAULT_INTERVAL_MS = 2000;
+    private static final int SHUTDOWN_WAIT_MS = 2000;
+
+    private final Set<Design> dirtyDesigns = new LinkedHashSet<>();
+    private final Timer timer;
+
+    public AutosaveService() {
+        this(DEFAULT_INTERVAL_MS);
+    }
+
+    public AutosaveService(int intervalMs) {
+        timer = new Timer(intervalMs, e -> flush());
+        timer.setRepeats(false);
+        DataManager.addShutdownFlusher(this::flushAtExit);
+        if (!GraphicsEnvironment.isHeadless()) {
+            // Sees the event before the window's own close handling
+            Toolkit.getDefaultToolkit().addAWTEventListener(e -> {
+                if (e.getID() == WindowEvent.WINDOW_CLOSING) {
+                    flush();
+                }
+            }, AWTEvent.WINDOW_EVENT_MASK);
+        }
+    }
+
+    /**
+     * Starts saving the design automatically whenever it changes
+     */
+    public void watch(Design design) {
+        design.addListener(this);
+    }
+
+    /**
+     * Stops saving the design automatically. A change already waiting for the
+     * timer is still saved if the design is still in the saved list then.
+     */
+    public void unwatch(Design design) {
+        design.removeListener(this);
+    }
+
+    @Override
+    public void designChanged(Design design) {
+        synchronized (this) {
+            if (!dirtyDesigns.add(design)) {
+                // Already waiting for the timer
+                return;
+            }
+        }
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Queues a save of every design changed since the last flush. Designs that
+     * were deleted or renamed without saving in the meantime are skipped.
+     */
+    public void flush() {
+        Design[] batch;
+        synchronized (this) {
+            batch = dirtyDesigns.toArray(new Design[0]);
+            dirtyDesigns.clear();
+        }
+        for (Design design : batch) {
+            DesignManager.resaveDesign(design);
+        }
+    }
+
+    // Runs on the shutdown hook thread
+    private void flushAtExit() {
+        synchronized (this) {
+            if (dirtyDesigns.isEmpty()) {
+                return;
+            }
+        }
+        if (SwingUtilities.isEventDispatchThread()) {
+            flush();
+            return;
+        }
+
+        FutureTask<Void> task = new FutureTask<>(this::flush, null);
+        SwingUtilities.invokeLater(task);
+        try {
+            task.get(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (task.cancel(false)) {
+                System.err.println("Autosave skipped at exit: the event dispatch thread did not respond");
+            } else {
+                waitFor(task);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error autosaving at exit: " + e.getCause());
+            e.getCause().printStackTrace();
+        }
+    }
+
+    // Waits for a flush that had already started on the event dispatch thread
+    private static void waitFor(FutureTask<Void> task) {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error autosaving at exit: " + e.getCause());
+            e.getCause().printStackTrace();
+        }
+    }
+}
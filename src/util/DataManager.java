@@ -1,47 +1,347 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DataManager {
     private static final String DATA_FILE = "designs.dat";
+    // Compactions write designs.1.dat, designs.2.dat and so on instead of
+    // replacing the snapshot in place, since the current one is mapped and a
+    // mapped file cannot be replaced on every platform. The highest
+    // generation is the current snapshot; designs.dat counts as generation 0.
+    private static final String SNAPSHOT_PREFIX = "designs.";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    private static final String JOURNAL_FILE = "designs.journal";
+    // Journal being folded into the snapshot by a compaction
+    private static final String COMPACTING_JOURNAL_FILE = "designs.journal.old";
 
-    public static void saveDesigns(List<Design> designs) {
-        try (ObjectOutputStream out = new ObjectOutputStream(
-                new BufferedOutputStream(new FileOutputStream(DATA_FILE)))) {
-            out.writeObject(designs);
-            System.out.println("Designs saved successfully to " + DATA_FILE);
-        } catch (IOException e) {
-            System.err.println("Error saving designs: " + e.getMessage());
-            e.printStackTrace();
-        }
+    // Files written by the old ObjectOutputStream based store start with this
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+
+    // Compact once the journal outgrows both this and the snapshot itself
+    private static final long MIN_COMPACTION_BYTES = 256 * 1024;
+    private static final long COMPACTION_CHECK_MINUTES = 5;
+
+    private static final long SHUTDOWN_WAIT_SECONDS = 5;
+
+    private static final DesignJournal journal = new DesignJournal(new File(JOURNAL_FILE));
+    // Single thread so journal appends keep the order they were requested in
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "design-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final List<Runnable> shutdownFlushers = new CopyOnWriteArrayList<>();
+    private static final Object compactionLock = new Object();
+    private static ScheduledExecutorService compactor;
+    private static final AtomicBoolean compactionPending = new AtomicBoolean(false);
+    private static volatile File snapshot = new File(DATA_FILE);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DataManager::shutdown, "design-shutdown"));
+    }
+
+    /**
+     * Queues a save of one design. The design is encoded on the calling thread
+     * and appended to the journal on a background thread.
+     */
+    public static void recordSave(Design design) {
+        recordSave(DesignWriter.encode(design));
     }
 
-    @SuppressWarnings("unchecked")
-    public static List<Design> loadDesigns() {
-        List<Design> designs = new ArrayList<>();
-        File file = new File(DATA_FILE);
+    /**
+     * Queues an already encoded design record for appending to the journal
+     */
+    public static void recordSave(byte[] record) {
+        writer.execute(() -> {
+            try {
+                journal.appendPut(record);
+                scheduleCompactionIfNeeded();
+            } catch (IOException e) {
+                System.err.println("Error saving design: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Queues a delete of one design. Saves and deletes reach the journal in
+     * the order they were requested.
+     */
+    public static void recordDelete(String designName) {
+        writer.execute(() -> {
+            try {
+                journal.appendDelete(designName);
+                scheduleCompactionIfNeeded();
+            } catch (IOException e) {
+                System.err.println("Error deleting design: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Registers a task that queues any pending saves when the application exits,
+     * before the queued writes are drained
+     */
+    public static void addShutdownFlusher(Runnable flusher) {
+        shutdownFlushers.add(flusher);
+    }
 
-        // Return empty list if file doesn't exist yet
-        if (!file.exists()) {
-            System.out.println("No designs file found. Creating a new one when designs are saved.");
-            return designs;
+    private static void shutdown() {
+        for (Runnable flusher : shutdownFlushers) {
+            flusher.run();
         }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Some design saves did not finish before exit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        try (ObjectInputStream in = new ObjectInputStream(
-                new BufferedInputStream(new FileInputStream(DATA_FILE)))) {
-            designs = (List<Design>) in.readObject();
-            System.out.println("Loaded " + designs.size() + " designs from " + DATA_FILE);
-        } catch (FileNotFoundException e) {
-            System.err.println("Designs file not found: " + e.getMessage());
+    /**
+     * Loads summaries of all saved designs. The designs file is memory-mapped
+     * and only the summary part of each record is read; full designs are
+     * decoded on demand by {@link DesignSummary#getDesign()}.
+     */
+    public static List<DesignSummary> loadDesigns() {
+        List<DesignSummary> designs = new ArrayList<>();
+        File file = latestSnapshot();
+        snapshot = file;
+        deleteOldSnapshots(file);
+
+        Map<String, DesignSummary> records = new LinkedHashMap<>();
+        try {
+            if (file.exists()) {
+                readSnapshot(file, records);
+            } else {
+                System.out.println("No designs file found. Creating a new one when designs are saved.");
+            }
         } catch (IOException e) {
+            // Designs saved since the last compaction are still in the journal
             System.err.println("Error reading designs file: " + e.getMessage());
             e.printStackTrace();
-        } catch (ClassNotFoundException e) {
-            System.err.println("Error deserializing designs: " + e.getMessage());
+        }
+
+        try {
+            // Replay an interrupted compaction first, then the live journal
+            DesignJournal.replay(new File(COMPACTING_JOURNAL_FILE), recordApplier(records));
+            DesignJournal.replay(new File(JOURNAL_FILE), recordApplier(records));
+        } catch (IOException e) {
+            System.err.println("Error reading design journal: " + e.getMessage());
             e.printStackTrace();
         }
 
-        // Return empty list if there was an error
-        return designs != null ? designs : new ArrayList<>();
+        designs.addAll(records.values());
+        System.out.println("Loaded " + designs.size() + " designs from " + file.getName());
+
+        startCompactor();
+        return designs;
+    }
+
+    private static void scheduleCompactionIfNeeded() {
+        if (compactionDue() && compactionPending.compareAndSet(false, true)) {
+            startCompactor().execute(DataManager::compact);
+        }
+    }
+
+    private static boolean compactionDue() {
+        long journalSize = journal.size();
+        return journalSize > MIN_COMPACTION_BYTES && journalSize > snapshot.length();
+    }
+
+    private static synchronized ScheduledExecutorService startCompactor() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "design-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Periodic check in case the journal grew without crossing the threshold on a save
+            compactor.scheduleWithFixedDelay(DataManager::scheduleCompactionIfNeeded,
+                    COMPACTION_CHECK_MINUTES, COMPACTION_CHECK_MINUTES, TimeUnit.MINUTES);
+        }
+        return compactor;
+    }
+
+    /**
+     * Folds the journal into a new snapshot. Works on encoded records only, so
+     * it never touches Design objects the editor may be changing.
+     */
+    private static void compact() {
+        synchronized (compactionLock) {
+            try {
+                File compacting = new File(COMPACTING_JOURNAL_FILE);
+                // A leftover file means the last compaction died; fold that one in first
+                if (!compacting.exists()) {
+                    journal.rotateTo(compacting);
+                }
+
+                Map<String, DesignSummary> records = new LinkedHashMap<>();
+                File file = snapshot;
+                if (file.exists()) {
+                    readSnapshot(file, records);
+                }
+                DesignJournal.replay(compacting, recordApplier(records));
+
+                File next = snapshotFile(generationOf(file.getName()) + 1);
+                writeSnapshot(next, out -> writeRecords(out, records));
+                snapshot = next;
+                Files.deleteIfExists(compacting.toPath());
+                deleteOldSnapshots(next);
+                System.out.println("Compacted design journal into " + next.getName());
+            } catch (IOException e) {
+                System.err.println("Error compacting design journal: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                compactionPending.set(false);
+            }
+        }
+    }
+
+    private interface SnapshotWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    // Writes to a temporary file, forces it to disk and renames it to the new
+    // generation's name, so the snapshot file only appears once it is complete
+    private static void writeSnapshot(File target, SnapshotWriter writer) throws IOException {
+        Path file = target.getAbsoluteFile().toPath();
+        Path temp = file.resolveSibling(target.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            writer.write(out);
+            out.flush();
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file);
+        }
+        syncDirectory(file.getParent());
+    }
+
+    private static File snapshotFile(long generation) {
+        return new File(generation == 0 ? DATA_FILE : SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX);
+    }
+
+    // Returns the generation of a snapshot file name, or -1 if it is not one
+    private static long generationOf(String name) {
+        if (name.equals(DATA_FILE)) {
+            return 0;
+        }
+        if (!name.startsWith(SNAPSHOT_PREFIX) || !name.endsWith(SNAPSHOT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            long generation = Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(),
+                    name.length() - SNAPSHOT_SUFFIX.length()));
+            return generation > 0 ? generation : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static File[] snapshotFiles() {
+        File directory = new File(DATA_FILE).getAbsoluteFile().getParentFile();
+        File[] files = directory.listFiles((dir, name) -> generationOf(name) >= 0);
+        return files != null ? files : new File[0];
+    }
+
+    // Returns the newest snapshot, or designs.dat if there is none yet
+    private static File latestSnapshot() {
+        long latest = 0;
+        for (File file : snapshotFiles()) {
+            latest = Math.max(latest, generationOf(file.getName()));
+        }
+        return snapshotFile(latest);
+    }
+
+    // Older generations may still be mapped by summaries that have not been
+    // collected yet, and cannot be deleted then on Windows. Whatever is left
+    // is retried after the next compaction and on the next start.
+    private static void deleteOldSnapshots(File current) {
+        long generation = generationOf(current.getName());
+        for (File file : snapshotFiles()) {
+            if (generationOf(file.getName()) < generation && !file.delete() && file.exists()) {
+                System.err.println("Could not delete old designs file " + file.getName()
+                        + "; it will be retried later");
+            }
+        }
+    }
+
+    // Makes the rename itself durable; not supported on every platform
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort only
+        }
+    }
+
+    private static void readSnapshot(File file, Map<String, DesignSummary> records) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            if (((in.read() << 8) | in.read()) == JAVA_SERIALIZATION_MAGIC) {
+                // The old format could never hold designs (they are not Serializable)
+                System.out.println("Ignoring legacy designs file " + file.getName()
+                        + ". It will be replaced when designs are saved.");
+                return;
+            }
+        }
+        DesignArchive archive = DesignArchive.open(file);
+        for (DesignSummary summary : archive.readSummaries()) {
+            records.put(summary.getName(), summary);
+        }
+        if (archive.getSkippedCount() > 0) {
+            System.err.println("Recovered " + records.size() + " designs from " + file.getName() + "; "
+                    + archive.getSkippedCount() + " damaged records were skipped");
+        }
+    }
+
+    private static void writeRecords(OutputStream out, Map<String, DesignSummary> records) throws IOException {
+        DesignArchive.Writer archive = new DesignArchive.Writer(out, records.size());
+        for (DesignSummary summary : records.values()) {
+            archive.add(summary.getRecord());
+        }
+        archive.finish();
+    }
+
+    // Replacing keeps a design in its original position, like DesignManager does
+    private static DesignJournal.Visitor recordApplier(Map<String, DesignSummary> records) {
+        return new DesignJournal.Visitor() {
+            @Override
+            public void put(String name, byte[] payload) {
+                try {
+                    records.put(name, DesignReader.readSummary(ByteBuffer.wrap(payload)));
+                } catch (IOException e) {
+                    System.err.println("Skipping corrupt journal record for '" + name + "'");
+                }
+            }
+
+            @Override
+            public void delete(String name) {
+                records.remove(name);
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,351 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Read-only, memory-mapped view of a designs file.
+ *
+ * Every record is followed by a CRC32C of its payload, and the file ends
+ * with an offset index followed by a fixed size footer:
+ *   index: per record, offset (8 bytes), payload length (4), CRC32C (4)
+ *   footer: index offset (8 bytes), record count (4), CRC32C of the index (4),
+ *   magic "RSDX"
+ * so opening an archive reads only the index. Files whose index is damaged
+ * are scanned once by their length prefixes instead. When the scan meets a
+ * damaged record it searches ahead for the next record whose length prefix
+ * and checksum agree, so the records after it are still found.
+ *
+ * Records whose checksum does not match are dropped when the archive is
+ * opened, so one damaged design does not take the others with it.
+ *
+ * Record payloads are handed out as slices of the mapping; nothing is copied
+ * or decoded until a caller asks for it.
+ */
+public class DesignArchive {
+    public static final int INDEX_MAGIC = 0x52534458; // "RSDX"
+    private static final int FOOTER_SIZE = 20;
+    private static final int INDEX_ENTRY_SIZE = 16;
+    private static final int CHECKSUM_SIZE = 4;
+
+    // Archives at least this large are verified on all cores
+    private static final long PARALLEL_VERIFY_BYTES = 1024 * 1024;
+
+    private final ByteBuffer data;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] checksums;
+    private int skipped;
+
+    private DesignArchive(ByteBuffer data, int[] offsets, int[] lengths, int[] checksums) {
+        this.data = data;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.checksums = checksums;
+    }
+
+    /**
+     * Maps the given designs file. The mapping stays valid after the file is
+     * replaced on disk, so summaries keep working across compactions.
+     */
+    public static DesignArchive open(File file) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Designs file too large to map: " + file);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return open(data);
+    }
+
+    /**
+     * Opens an archive held in a buffer, dropping any records that fail
+     * their checksum
+     */
+    public static DesignArchive open(ByteBuffer data) throws IOException {
+        DesignReader reader = new DesignReader(data.duplicate());
+        int designCount = reader.readHeader();
+
+        DesignArchive archive;
+        try {
+            archive = readIndex(data, designCount);
+        } catch (IOException e) {
+            System.err.println(e.getMessage() + ". Recovering designs by scanning the file.");
+            archive = scan(data, designCount);
+        }
+        archive.verify();
+        return archive;
+    }
+
+    private static DesignArchive readIndex(ByteBuffer data, int designCount) throws IOException {
+        int limit = data.limit();
+        if (limit < FOOTER_SIZE || data.getInt(limit - 4) != INDEX_MAGIC) {
+            throw new IOException("Designs file index is missing");
+        }
+        long indexOffset = data.getLong(limit - FOOTER_SIZE);
+        int count = data.getInt(limit - 12);
+        int indexChecksum = data.getInt(limit - 8);
+        if (count != designCount || indexOffset < 0
+                || indexOffset + (long) count * INDEX_ENTRY_SIZE != limit - FOOTER_SIZE) {
+            throw new IOException("Designs file index is corrupt");
+        }
+        if (checksum(data, (int) indexOffset, count * INDEX_ENTRY_SIZE) != indexChecksum) {
+            throw new IOException("Designs file index fails its checksum");
+        }
+
+        int[] offsets = new int[count];
+        int[] lengths = new int[count];
+        int[] checksums = new int[count];
+        int pos = (int) indexOffset;
+        for (int i = 0; i < count; i++) {
+            long offset = data.getLong(pos);
+            int length = data.getInt(pos + 8);
+            if (offset < 0 || length < 0 || offset + length + CHECKSUM_SIZE > indexOffset) {
+                throw new IOException("Designs file index entry " + i + " is out of range");
+            }
+            offsets[i] = (int) offset;
+            lengths[i] = length;
+            checksums[i] = data.getInt(pos + 12);
+            pos += INDEX_ENTRY_SIZE;
+        }
+        return new DesignArchive(data, offsets, lengths, checksums);
+    }
+
+    // Walks the length prefixes, skipping damaged bytes up to the next intact record
+    private static DesignArchive scan(ByteBuffer data, int designCount) throws IOException {
+        ByteBuffer in = data.duplicate();
+        DesignReader reader = new DesignReader(in);
+        reader.readHeader();
+        int[] offsets = new int[designCount];
+        int[] lengths = new int[designCount];
+        int[] checksums = new int[designCount];
+        int found = 0;
+        int position = in.position();
+        int damagedBytes = 0;
+        while (found < designCount && position < data.limit()) {
+            int length = -1;
+            int offset = 0;
+            try {
+                in.position(position);
+                length = reader.readVarInt();
+                offset = in.position();
+            } catch (RuntimeException e) {
+                // Malformed length prefix
+            }
+            // Cheap checks first so most damaged offsets never reach the
+            // checksum. Real designs are never empty, which also keeps runs
+            // of zero bytes from passing as records.
+            boolean intact = length > 0 && (long) length + CHECKSUM_SIZE <= data.limit() - offset
+                    && startsWithName(data, offset, length);
+            if (intact) {
+                intact = checksum(data, offset, length) == data.getInt(offset + length);
+            }
+            if (!intact) {
+                position++;
+                damagedBytes++;
+                continue;
+            }
+            offsets[found] = offset;
+            lengths[found] = length;
+            checksums[found] = data.getInt(offset + length);
+            position = offset + length + CHECKSUM_SIZE;
+            found++;
+        }
+        if (damagedBytes > 0) {
+            System.err.println("Skipped " + damagedBytes + " damaged bytes in designs file");
+        }
+        if (found < designCount) {
+            System.err.println("Designs file is damaged: recovered " + found + " of "
+                    + designCount + " records");
+        }
+
+        DesignArchive archive = new DesignArchive(data, trim(offsets, found), trim(lengths, found),
+                trim(checksums, found));
+        archive.skipped = designCount - found;
+        return archive;
+    }
+
+    // Every record starts with the design name, a varint of its byte length
+    // plus one followed by the bytes; the name is never null
+    private static boolean startsWithName(ByteBuffer data, int offset, int length) {
+        int end = offset + length;
+        int value = 0;
+        int position = offset;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position >= end) {
+                return false;
+            }
+            byte b = data.get(position++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value > 0 && value - 1 <= end - position;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks every record against its stored checksum and drops the ones that
+     * do not match. Large archives are checked in parallel.
+     */
+    private void verify() {
+        int n = offsets.length;
+        long totalBytes = n == 0 ? 0 : offsets[n - 1] + (long) lengths[n - 1];
+        IntStream indices = IntStream.range(0, n);
+        if (totalBytes >= PARALLEL_VERIFY_BYTES) {
+            indices = indices.parallel();
+        }
+        boolean[] valid = new boolean[n];
+        indices.forEach(i -> valid[i] = checksum(data, offsets[i], lengths[i]) == checksums[i]);
+
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (valid[i]) {
+                offsets[kept] = offsets[i];
+                lengths[kept] = lengths[i];
+                checksums[kept] = checksums[i];
+                kept++;
+            } else {
+                System.err.println("Skipping design record " + i + ": checksum mismatch");
+            }
+        }
+        skipped += n - kept;
+        offsets = trim(offsets, kept);
+        lengths = trim(lengths, kept);
+        checksums = trim(checksums, kept);
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Returns the number of records dropped because they were damaged
+     */
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    /**
+     * Returns the payload of record i as a read-only slice of the mapping
+     */
+    public ByteBuffer record(int i) {
+        ByteBuffer slice = data.duplicate();
+        slice.limit(offsets[i] + lengths[i]).position(offsets[i]);
+        return slice.slice();
+    }
+
+    /**
+     * Reads the summary of every readable record without decoding any furniture
+     */
+    public List<DesignSummary> readSummaries() {
+        List<DesignSummary> summaries = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            try {
+                summaries.add(DesignReader.readSummary(record(i)));
+            } catch (IOException e) {
+                skipped++;
+                System.err.println("Skipping design record " + i + ": " + e.getMessage());
+            }
+        }
+        return summaries;
+    }
+
+    static int checksum(ByteBuffer data, int offset, int length) {
+        ByteBuffer slice = data.duplicate();
+        slice.limit(offset + length).position(offset);
+        CRC32C crc = new CRC32C();
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+
+    private static int[] trim(int[] values, int length) {
+        if (values.length == length) {
+            return values;
+        }
+        int[] copy = new int[length];
+        System.arraycopy(values, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * Streams a designs file: header, checksummed records, then index and footer
+     */
+    public static class Writer {
+        private final OutputStream out;
+        private final DesignWriter buffer = new DesignWriter();
+        private final long[] offsets;
+        private final int[] lengths;
+        private final int[] checksums;
+        private long position;
+        private int count;
+
+        public Writer(OutputStream out, int designCount) throws IOException {
+            this.out = out;
+            this.offsets = new long[designCount];
+            this.lengths = new int[designCount];
+            this.checksums = new int[designCount];
+            buffer.writeHeader(designCount);
+            flushBuffer();
+        }
+
+        public void add(byte[] payload, int offset, int length) throws IOException {
+            CRC32C crc = new CRC32C();
+            crc.update(payload, offset, length);
+
+            buffer.writeVarInt(length);
+            flushBuffer();
+            offsets[count] = position;
+            lengths[count] = length;
+            checksums[count] = (int) crc.getValue();
+            out.write(payload, offset, length);
+            position += length;
+            buffer.writeInt(checksums[count]);
+            flushBuffer();
+            count++;
+        }
+
+        public void add(ByteBuffer payload) throws IOException {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.duplicate().get(bytes);
+            add(bytes, 0, bytes.length);
+        }
+
+        public void finish() throws IOException {
+            if (count != offsets.length) {
+                throw new IOException("Expected " + offsets.length + " designs but wrote " + count);
+            }
+            long indexOffset = position;
+            for (int i = 0; i < count; i++) {
+                buffer.writeInt((int) (offsets[i] >>> 32));
+                buffer.writeInt((int) offsets[i]);
+                buffer.writeInt(lengths[i]);
+                buffer.writeInt(checksums[i]);
+            }
+            byte[] index = buffer.toByteArray();
+            CRC32C indexCrc = new CRC32C();
+            indexCrc.update(index, 0, index.length);
+
+            buffer.writeInt((int) (indexOffset >>> 32));
+            buffer.writeInt((int) indexOffset);
+            buffer.writeInt(count);
+            buffer.writeInt((int) indexCrc.getValue());
+            buffer.writeInt(INDEX_MAGIC);
+            flushBuffer();
+        }
+
+        private void flushBuffer() throws IOException {
+            buffer.writeTo(out);
+            position += buffer.size();
+            buffer.reset();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of design saves and deletes.
+ *
+ * Each save or delete is one record appended to the end of the file, so the
+ * cost of saving is proportional to the size of one design. The journal is
+ * replayed on top of the last snapshot when designs are loaded and folded into
+ * a new snapshot by {@link DataManager} compaction.
+ *
+ * File layout: magic "RSDJ", version (2 bytes), then records of
+ * op (1 byte), varint payload length, payload and, for the checked ops, a
+ * CRC32C of op and payload. A PUT payload is a {@link DesignWriter} record,
+ * a DELETE payload is the UTF-8 design name. Records are written with the
+ * checked ops; the unchecked ones are still read from older journals.
+ *
+ * Every append is forced to disk before it returns, so a save that
+ * completed survives a crash. A record torn by a crash ends the replay, and
+ * a complete record with a bad checksum is skipped.
+ */
+public class DesignJournal {
+    public static final int MAGIC = 0x5253444A; // "RSDJ"
+    public static final int VERSION = 1;
+
+    static final byte OP_PUT = 1;
+    static final byte OP_DELETE = 2;
+    static final byte OP_PUT_CHECKED = 3;
+    static final byte OP_DELETE_CHECKED = 4;
+
+    private static final int HEADER_SIZE = 6;
+
+    /**
+     * Receives journal records in the order they were written
+     */
+    public interface Visitor {
+        void put(String name, byte[] payload);
+
+        void delete(String name);
+    }
+
+    private final File file;
+    private FileChannel channel;
+
+    public DesignJournal(File file) {
+        this.file = file;
+    }
+
+    public synchronized void appendPut(byte[] payload) throws IOException {
+        append(OP_PUT_CHECKED, payload);
+    }
+
+    public synchronized void appendDelete(String name) throws IOException {
+        append(OP_DELETE_CHECKED, name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the current size of the journal file in bytes
+     */
+    public synchronized long size() {
+        try {
+            return channel != null ? channel.size() : file.length();
+        } catch (IOException e) {
+            return file.length();
+        }
+    }
+
+    /**
+     * Moves the current journal to target and starts a new, empty one
+     */
+    public synchronized void rotateTo(File target) throws IOException {
+        close();
+        if (file.exists()) {
+            Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void append(byte op, byte[] payload) throws IOException {
+        FileChannel out = open();
+        DesignWriter record = new DesignWriter(payload.length + 10);
+        record.writeByte(op);
+        record.writeVarInt(payload.length);
+        record.writeBytes(payload, 0, payload.length);
+        record.writeInt(checksum(op, payload));
+        ByteBuffer bytes = ByteBuffer.wrap(record.toByteArray());
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        out.force(false);
+    }
+
+    private static int checksum(byte op, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(op);
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    private FileChannel open() throws IOException {
+        if (channel != null) {
+            return channel;
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort((short) VERSION).flip();
+            channel.write(header, 0);
+            channel.position(HEADER_SIZE);
+        } else {
+            // Drop a record torn by a crash so new appends start on a boundary
+            long end = replay(file, null);
+            channel.truncate(end);
+            channel.position(end);
+        }
+        return channel;
+    }
+
+    /**
+     * Replays a journal file and returns the offset just past the last
+     * complete record. A missing file replays nothing.
+     */
+    public static long replay(File journalFile, Visitor visitor) throws IOException {
+        if (!journalFile.exists()) {
+            return 0;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(journalFile.toPath()));
+        if (data.remaining() < HEADER_SIZE) {
+            return 0;
+        }
+        if (data.getInt() != MAGIC) {
+            throw new IOException("Not a RoomStyler design journal: " + journalFile);
+        }
+        int version = data.getShort() & 0xFFFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported design journal version " + version);
+        }
+
+        DesignReader reader = new DesignReader(data);
+        long end = data.position();
+        while (data.hasRemaining()) {
+            try {
+                byte op = data.get();
+                if (op < OP_PUT || op > OP_DELETE_CHECKED) {
+                    break;
+                }
+                boolean checked = op == OP_PUT_CHECKED || op == OP_DELETE_CHECKED;
+                int length = reader.readVarInt();
+                if (length < 0 || length + (checked ? 4 : 0) > data.remaining()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                data.get(payload);
+                if (checked && data.getInt() != checksum(op, payload)) {
+                    if (visitor != null) {
+                        System.err.println("Skipping damaged record in design journal " + journalFile);
+                    }
+                    end = data.position();
+                    continue;
+                }
+                if (visitor != null) {
+                    if (op == OP_PUT || op == OP_PUT_CHECKED) {
+                        visitor.put(DesignReader.peekName(payload), payload);
+                    } else {
+                        visitor.delete(new String(payload, StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Torn record at the tail of the file
+                break;
+            }
+            end = data.position();
+        }
+        return end;
+    }
+}
@@ -1,12 +1,52 @@
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Holds the current design and the index of saved designs.
+ *
+ * Safe to use from any thread. Saved designs are indexed by name, in the
+ * order they were first saved, by modification date and by floor area, all
+ * in one immutable {@link Index}. A write builds the next index from the
+ * current one, inserting the design at its place in each order rather than
+ * sorting again, and publishes it; reads only fetch the published index, so
+ * they never wait for a write and always see the designs as of one write.
+ * Writes are serialized among themselves and queue their journal entry in
+ * that order.
+ */
 public class DesignManager {
-    private static Design currentDesign;
-    private static List<Design> savedDesigns = new ArrayList<>();
+    // Most recently modified first, ties broken by name so entries stay distinct
+    private static final Comparator<DesignSummary> BY_RECENT =
+            Comparator.comparing(DesignSummary::getLastModifiedDate, Comparator.reverseOrder())
+                    .thenComparing(DesignSummary::getName);
+    private static final Comparator<DesignSummary> BY_FLOOR_AREA =
+            Comparator.comparingDouble(DesignSummary::getRoomFloorArea)
+                    .thenComparing(DesignSummary::getName);
+
+    private static volatile Design currentDesign;
+
+    private static final Object writeLock = new Object();
+    // Replaced, never changed, by writes holding writeLock
+    private static volatile Index index;
+
+    private static final AutosaveService autosave = new AutosaveService();
+
+    static {
+        index = Index.of(DataManager.loadDesigns());
+    }
 
     public static void setCurrentDesign(Design design) {
         currentDesign = design;
+
+        // Keep saved designs up to date on disk while they are being edited
+        if (design != null && isSaved(design)) {
+            autosave.watch(design);
+        }
     }
 
     public static Design getCurrentDesign() {
@@ -17,25 +57,221 @@ public class DesignManager {
         currentDesign = null;
     }
 
+    /**
+     * Saves a design, replacing the saved design with the same name in place.
+     * Call from the thread that edits the design; it is encoded right away.
+     */
     public static void saveDesign(Design design) {
-        // Check if design already exists
-        for (int i = 0; i < savedDesigns.size(); i++) {
-            if (savedDesigns.get(i).getName().equals(design.getName())) {
-                // Replace existing design
-                savedDesigns.set(i, design);
-                return;
+        byte[] record = DesignWriter.encode(design);
+        DesignSummary summary = DesignSummary.of(design, record);
+        synchronized (writeLock) {
+            put(summary, record);
+        }
+        autosave.watch(design);
+    }
+
+    /**
+     * Saves a design again after it changed, but only if it is still saved
+     * under its current name. Returns false if it was deleted or renamed.
+     */
+    public static boolean resaveDesign(Design design) {
+        if (!isSaved(design)) {
+            return false;
+        }
+        byte[] record = DesignWriter.encode(design);
+        DesignSummary summary = DesignSummary.of(design, record);
+        synchronized (writeLock) {
+            // Checked again in case a delete got in while encoding
+            if (!isSaved(design)) {
+                return false;
             }
+            put(summary, record);
+            return true;
         }
+    }
+
+    private static boolean isSaved(Design design) {
+        DesignSummary summary = index.byName.get(design.getName());
+        return summary != null && summary.isLoaded() && summary.getDesign() == design;
+    }
+
+    // Called with writeLock held
+    private static void put(DesignSummary summary, byte[] record) {
+        index = index.with(summary);
+        DataManager.recordSave(record);
+    }
+
+    /**
+     * Returns the summary of the saved design with the given name, or null
+     */
+    public static DesignSummary findDesign(String designName) {
+        return index.byName.get(designName);
+    }
+
+    /**
+     * Returns summaries of all saved designs in the order they were first saved,
+     * without loading their furniture
+     */
+    public static List<DesignSummary> getDesignSummaries() {
+        return index.bySaveOrder;
+    }
 
-        // Add new design
-        savedDesigns.add(design);
+    /**
+     * Returns summaries of all saved designs, most recently modified first
+     */
+    public static List<DesignSummary> getDesignsByRecent() {
+        return index.byRecent;
     }
 
+    /**
+     * Returns the most recently modified designs, at most limit of them
+     */
+    public static List<DesignSummary> getRecentDesigns(int limit) {
+        List<DesignSummary> recent = index.byRecent;
+        return recent.subList(0, Math.min(limit, recent.size()));
+    }
+
+    /**
+     * Returns summaries of all saved designs, smallest room floor area first
+     */
+    public static List<DesignSummary> getDesignsByFloorArea() {
+        return index.byFloorArea;
+    }
+
+    /**
+     * Returns designs whose room floor area lies between min and max (inclusive)
+     */
+    public static List<DesignSummary> getDesignsByFloorArea(double minArea, double maxArea) {
+        List<DesignSummary> byArea = index.byFloorArea;
+        int start = firstAbove(byArea, minArea, false);
+        int end = Math.max(start, firstAbove(byArea, maxArea, true));
+        return byArea.subList(start, end);
+    }
+
+    // Binary search for the first design with more than the given area, or
+    // with at least that area if inclusive is false
+    private static int firstAbove(List<DesignSummary> byArea, double area, boolean inclusive) {
+        int low = 0;
+        int high = byArea.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            double middleArea = byArea.get(middle).getRoomFloorArea();
+            if (middleArea < area || (inclusive && middleArea == area)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns all saved designs, loading any that have not been opened yet
+     */
     public static List<Design> getSavedDesigns() {
-        return savedDesigns;
+        List<DesignSummary> summaries = index.bySaveOrder;
+        List<Design> designs = new ArrayList<>(summaries.size());
+        for (DesignSummary summary : summaries) {
+            Design design = summary.getDesign();
+            if (design != null) {
+                designs.add(design);
+            }
+        }
+        return Collections.unmodifiableList(designs);
+    }
+
+    public static int getSavedDesignCount() {
+        return index.byName.size();
     }
 
     public static void deleteDesign(String designName) {
-        savedDesigns.removeIf(design -> design.getName().equals(designName));
+        DesignSummary removed;
+        synchronized (writeLock) {
+            removed = index.byName.get(designName);
+            if (removed == null) {
+                return;
+            }
+            index = index.without(removed);
+            DataManager.recordDelete(designName);
+        }
+        if (removed.isLoaded()) {
+            autosave.unwatch(removed.getDesign());
+        }
+    }
+
+    /**
+     * The saved designs by name and in each listing order. Immutable: the
+     * listings are handed out as they are, and a write makes a new index.
+     * Summaries are immutable too, so their sort keys cannot change while
+     * they sit in a listing.
+     */
+    private static final class Index {
+        final Map<String, DesignSummary> byName;
+        final List<DesignSummary> bySaveOrder;
+        final List<DesignSummary> byRecent;
+        final List<DesignSummary> byFloorArea;
+
+        private Index(Map<String, DesignSummary> byName, List<DesignSummary> bySaveOrder,
+                      List<DesignSummary> byRecent, List<DesignSummary> byFloorArea) {
+            this.byName = Collections.unmodifiableMap(byName);
+            this.bySaveOrder = Collections.unmodifiableList(bySaveOrder);
+            this.byRecent = Collections.unmodifiableList(byRecent);
+            this.byFloorArea = Collections.unmodifiableList(byFloorArea);
+        }
+
+        // Sorts once; later writes keep the orders incrementally
+        static Index of(Collection<DesignSummary> summaries) {
+            Map<String, DesignSummary> byName = new LinkedHashMap<>();
+            for (DesignSummary summary : summaries) {
+                byName.put(summary.getName(), summary);
+            }
+            List<DesignSummary> bySaveOrder = new ArrayList<>(byName.values());
+            List<DesignSummary> byRecent = new ArrayList<>(bySaveOrder);
+            byRecent.sort(BY_RECENT);
+            List<DesignSummary> byFloorArea = new ArrayList<>(bySaveOrder);
+            byFloorArea.sort(BY_FLOOR_AREA);
+            return new Index(byName, bySaveOrder, byRecent, byFloorArea);
+        }
+
+        // Adds the summary, or puts it in place of the one with the same name
+        Index with(DesignSummary summary) {
+            DesignSummary previous = byName.get(summary.getName());
+            Map<String, DesignSummary> names = new HashMap<>(byName);
+            names.put(summary.getName(), summary);
+            List<DesignSummary> saveOrder = new ArrayList<>(bySaveOrder);
+            if (previous != null) {
+                saveOrder.set(saveOrder.indexOf(previous), summary);
+            } else {
+                saveOrder.add(summary);
+            }
+            return new Index(names, saveOrder,
+                    replace(byRecent, previous, summary, BY_RECENT),
+                    replace(byFloorArea, previous, summary, BY_FLOOR_AREA));
+        }
+
+        Index without(DesignSummary summary) {
+            Map<String, DesignSummary> names = new HashMap<>(byName);
+            names.remove(summary.getName());
+            List<DesignSummary> saveOrder = new ArrayList<>(bySaveOrder);
+            saveOrder.remove(summary);
+            return new Index(names, saveOrder,
+                    replace(byRecent, summary, null, BY_RECENT),
+                    replace(byFloorArea, summary, null, BY_FLOOR_AREA));
+        }
+
+        // Copies a sorted listing with one summary taken out and one put in at
+        // its sorted position, found by binary search; either may be null
+        private static List<DesignSummary> replace(List<DesignSummary> sorted, DesignSummary removed,
+                                                   DesignSummary added, Comparator<DesignSummary> order) {
+            List<DesignSummary> result = new ArrayList<>(sorted.size() + 1);
+            result.addAll(sorted);
+            if (removed != null) {
+                result.remove(Collections.binarySearch(result, removed, order));
+            }
+            if (added != null) {
+                result.add(-Collections.binarySearch(result, added, order) - 1, added);
+            }
+            return result;
+        }
     }
-}
\ No newline at end of file
+}
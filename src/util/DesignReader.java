@@ -0,0 +1,240 @@
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads designs written by {@link DesignWriter}.
+ *
+ * Decoding works on a ByteBuffer so the same code serves whole files read
+ * into memory and single records.
+ */
+public class DesignReader {
+    private final ByteBuffer in;
+
+    public DesignReader(ByteBuffer in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns true if the buffer starts with the design file magic
+     */
+    public static boolean isDesignFile(ByteBuffer data) {
+        return data.remaining() >= 4 && data.getInt(data.position()) == DesignWriter.MAGIC;
+    }
+
+    /**
+     * Reads a complete design file, skipping records that are damaged
+     */
+    public static List<Design> readFile(ByteBuffer data) throws IOException {
+        DesignArchive archive = DesignArchive.open(data);
+        List<Design> designs = new ArrayList<>(archive.size());
+        for (int i = 0; i < archive.size(); i++) {
+            try {
+                designs.add(decode(archive.record(i)));
+            } catch (IOException e) {
+                System.err.println("Skipping design record " + i + ": " + e.getMessage());
+            }
+        }
+        return designs;
+    }
+
+    /**
+     * Decodes a single record payload produced by {@link DesignWriter#encode}
+     */
+    public static Design decode(byte[] payload) throws IOException {
+        return decode(ByteBuffer.wrap(payload));
+    }
+
+    /**
+     * Decodes a record payload held in a buffer (for example a slice of a
+     * mapped archive) without changing the buffer's position
+     */
+    public static Design decode(ByteBuffer record) throws IOException {
+        ByteBuffer in = record.duplicate();
+        return new DesignReader(in).readDesign(in.remaining());
+    }
+
+    /**
+     * Returns the design name stored at the start of a record payload without
+     * decoding the rest of it
+     */
+    public static String peekName(byte[] payload) {
+        return new DesignReader(ByteBuffer.wrap(payload)).readString();
+    }
+
+    /**
+     * Checks magic and version and returns the number of designs in the file
+     */
+    public int readHeader() throws IOException {
+        try {
+            if (in.getInt() != DesignWriter.MAGIC) {
+                throw new IOException("Not a RoomStyler design file");
+            }
+            int version = in.getShort() & 0xFFFF;
+            if (version != DesignWriter.VERSION) {
+                throw new IOException("Unsupported design file version " + version);
+            }
+            return readVarInt();
+        } catch (RuntimeException e) {
+            throw new IOException("Truncated design file header", e);
+        }
+    }
+
+    /**
+     * Reads one record payload of the given length and leaves the buffer
+     * positioned right after it
+     */
+    public Design readDesign(int length) throws IOException {
+        int end = in.position() + length;
+        try {
+            DesignSummary summary = readSummaryFields(null);
+            int n = summary.getItemCount();
+
+            int typeCount = readVarInt();
+            FurnitureType[] types = new FurnitureType[typeCount];
+            for (int i = 0; i < typeCount; i++) {
+                types[i] = typeFor(readString());
+            }
+            int paletteSize = readVarInt();
+            Color[] palette = new Color[paletteSize + 1];
+            for (int i = 1; i <= paletteSize; i++) {
+                palette[i] = new Color(in.getInt(), true);
+            }
+            Color wallColor = palette[readVarInt()];
+            Color floorColor = palette[readVarInt()];
+
+            int[] typeRefs = new int[n];
+            int[] xs = new int[n];
+            int[] ys = new int[n];
+            int[] ws = new int[n];
+            int[] hs = new int[n];
+            double[] rotations = new double[n];
+            for (int i = 0; i < n; i++) typeRefs[i] = readVarInt();
+            for (int i = 0; i < n; i++) xs[i] = readSignedVarInt();
+            for (int i = 0; i < n; i++) ys[i] = readSignedVarInt();
+            for (int i = 0; i < n; i++) ws[i] = readSignedVarInt();
+            for (int i = 0; i < n; i++) hs[i] = readSignedVarInt();
+            for (int i = 0; i < n; i++) rotations[i] = readCompactDouble();
+
+            Room room = new Room(summary.getRoomShape(), summary.getRoomWidth(), summary.getRoomLength(),
+                    summary.getRoomHeight(), wallColor, floorColor);
+            Design design = new Design(summary.getName(), room);
+            FurnitureStore furniture = design.getFurniture();
+            for (int i = 0; i < n; i++) {
+                Color color = palette[readVarInt()];
+                FurnitureType type = types[typeRefs[i]];
+                if (type == null) {
+                    // Furniture type no longer exists in this version of the app
+                    continue;
+                }
+                furniture.add(type, xs[i], ys[i], ws[i], hs[i], rotations[i], FurnitureStore.toArgb(color));
+            }
+            design.setCreationDate(summary.getCreationDate());
+            design.setLastModifiedDate(summary.getLastModifiedDate());
+
+            if (in.position() != end) {
+                throw new IOException("Design record length mismatch for '" + summary.getName() + "'");
+            }
+            return design;
+        } catch (RuntimeException e) {
+            // BufferUnderflowException or a bad palette/type index
+            throw new IOException("Corrupt design record", e);
+        }
+    }
+
+    /**
+     * Reads only the summary part at the start of a record, leaving the
+     * furniture data untouched
+     */
+    public static DesignSummary readSummary(ByteBuffer record) throws IOException {
+        try {
+            return new DesignReader(record.duplicate()).readSummaryFields(record);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt design record", e);
+        }
+    }
+
+    private DesignSummary readSummaryFields(ByteBuffer record) {
+        String name = readString();
+        long created = readVarLong();
+        long modified = readVarLong();
+        String shape = readString();
+        double width = readCompactDouble();
+        double length = readCompactDouble();
+        double height = readCompactDouble();
+        int itemCount = readVarInt();
+        return new DesignSummary(name, shape, width, length, height,
+                new Date(created), new Date(modified), itemCount, record);
+    }
+
+    private static FurnitureType typeFor(String name) {
+        for (FurnitureType type : FurnitureType.values()) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    // Primitive decoders
+
+    public int readVarInt() {
+        int result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 28) {
+                // Fifth byte may only carry the top 4 bits
+                b = in.get();
+                if ((b & 0xF0) != 0) {
+                    throw new IllegalStateException("Malformed varint");
+                }
+                return result | (b << 28);
+            }
+        }
+    }
+
+    public int readSignedVarInt() {
+        int v = readVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varlong");
+    }
+
+    public double readCompactDouble() {
+        return Double.longBitsToDouble(Long.reverse(readVarLong()));
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        if (length > in.remaining()) {
+            throw new IllegalStateException("String runs past end of record");
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+/**
+ * Name, room and date details of a saved design, plus a handle to load the
+ * full design on demand.
+ *
+ * Summaries read from the archive only decode the start of each record, so
+ * listing designs does not touch any furniture data. The full design is
+ * decoded the first time {@link #getDesign()} is called.
+ */
+public class DesignSummary {
+    private final String name;
+    private final String roomShape;
+    private final double roomWidth;
+    private final double roomLength;
+    private final double roomHeight;
+    private final Date creationDate;
+    private final Date lastModifiedDate;
+    private final int itemCount;
+
+    // Encoded record, or null for a design that only exists in memory so far
+    private final ByteBuffer record;
+    private volatile Design design;
+
+    public DesignSummary(String name, String roomShape, double roomWidth, double roomLength,
+                         double roomHeight, Date creationDate, Date lastModifiedDate,
+                         int itemCount, ByteBuffer record) {
+        this.name = name;
+        this.roomShape = roomShape;
+        this.roomWidth = roomWidth;
+        this.roomLength = roomLength;
+        this.roomHeight = roomHeight;
+        this.creationDate = creationDate;
+        this.lastModifiedDate = lastModifiedDate;
+        this.itemCount = itemCount;
+        this.record = record;
+    }
+
+    /**
+     * Creates a summary for a loaded design together with the record it was
+     * just encoded to, so the saved state can be decoded again without
+     * touching the design the editors are changing
+     */
+    public static DesignSummary of(Design design, byte[] record) {
+        Room room = design.getRoom();
+        DesignSummary summary = new DesignSummary(design.getName(),
+                room != null ? room.getShape() : null,
+                room != null ? room.getWidth() : 0,
+                room != null ? room.getLength() : 0,
+                room != null ? room.getHeight() : 0,
+                design.getCreationDate(), design.getLastModifiedDate(),
+                design.getItems().size(), record != null ? ByteBuffer.wrap(record).asReadOnlyBuffer() : null);
+        summary.design = design;
+        return summary;
+    }
+
+    /**
+     * Returns the full design, decoding it from the archive the first time.
+     * Returns null if the stored record cannot be decoded.
+     */
+    public Design getDesign() {
+        Design result = design;
+        if (result == null && record != null) {
+            synchronized (this) {
+                result = design;
+                if (result == null) {
+                    try {
+                        result = DesignReader.decode(record);
+                        design = result;
+                    } catch (IOException e) {
+                        System.err.println("Error loading design '" + name + "': " + e.getMessage());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isLoaded() {
+        return design != null;
+    }
+
+    /**
+     * Returns the encoded record this summary was read from, or null
+     */
+    public ByteBuffer getRecord() {
+        return record != null ? record.duplicate() : null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRoomShape() {
+        return roomShape;
+    }
+
+    public double getRoomWidth() {
+        return roomWidth;
+    }
+
+    public double getRoomLength() {
+        return roomLength;
+    }
+
+    public double getRoomHeight() {
+        return roomHeight;
+    }
+
+    public double getRoomFloorArea() {
+        return roomWidth * roomLength;
+    }
+
+    public Date getCreationDate() {
+        return creationDate;
+    }
+
+    public Date getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+}
@@ -0,0 +1,256 @@
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes designs in the compact RoomStyler binary format.
+ *
+ * File layout:
+ *   magic "RSDS" (4 bytes), version (2 bytes), varint design count,
+ *   then one record per design: varint payload length, the payload and a
+ *   CRC32C of the payload, then the offset index described in {@link DesignArchive}.
+ *
+ * Record payload:
+ *   name, created, modified, room shape, width, length, height, item count
+ *   (the summary part, readable without touching furniture), then a table of
+ *   furniture type names, a color palette, wall/floor color refs and the
+ *   furniture columns (types, x, y, width, height, rotation, color refs),
+ *   each column stored as an array of varints.
+ *
+ * Types are stored by name and colors by palette index so a record does not
+ * depend on enum ordinals or on any other record.
+ */
+public class DesignWriter {
+    public static final int MAGIC = 0x52534453; // "RSDS"
+    public static final int VERSION = 3;
+
+    private byte[] buf;
+    private int count;
+
+    public DesignWriter() {
+        this(256);
+    }
+
+    public DesignWriter(int initialCapacity) {
+        buf = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Writes a complete design file containing the given designs
+     */
+    public static void writeFile(OutputStream out, List<Design> designs) throws IOException {
+        DesignArchive.Writer archive = new DesignArchive.Writer(out, designs.size());
+        DesignWriter record = new DesignWriter();
+        for (Design design : designs) {
+            record.reset();
+            record.writeDesign(design);
+            archive.add(record.buf, 0, record.count);
+        }
+        archive.finish();
+    }
+
+    /**
+     * Encodes a single design record payload (without length prefix)
+     */
+    public static byte[] encode(Design design) {
+        DesignWriter writer = new DesignWriter();
+        writer.writeDesign(design);
+        return writer.toByteArray();
+    }
+
+    public void writeHeader(int designCount) {
+        writeInt(MAGIC);
+        writeShort(VERSION);
+        writeVarInt(designCount);
+    }
+
+    public void writeDesign(Design design) {
+        Room room = design.getRoom();
+        FurnitureStore furniture = design.getFurniture();
+        int n = furniture.size();
+
+        // Summary part
+        writeString(design.getName());
+        writeVarLong(millis(design.getCreationDate()));
+        writeVarLong(design.getLastModified());
+        writeString(room != null ? room.getShape() : null);
+        writeCompactDouble(room != null ? room.getWidth() : 0);
+        writeCompactDouble(room != null ? room.getLength() : 0);
+        writeCompactDouble(room != null ? room.getHeight() : 0);
+        writeVarInt(n);
+
+        // Type name table and color palette, only for what this design uses
+        List<FurnitureType> types = new ArrayList<>();
+        Map<FurnitureType, Integer> typeIndex = new HashMap<>();
+        List<Integer> palette = new ArrayList<>();
+        Map<Integer, Integer> paletteIndex = new HashMap<>();
+
+        int wallRef = colorRef(room != null ? room.getWallColor() : null, palette, paletteIndex);
+        int floorRef = colorRef(room != null ? room.getFloorColor() : null, palette, paletteIndex);
+        int[] typeRefs = new int[n];
+        int[] colorRefs = new int[n];
+        for (int i = 0; i < n; i++) {
+            FurnitureType type = furniture.getType(i);
+            Integer index = typeIndex.get(type);
+            if (index == null) {
+                index = types.size();
+                types.add(type);
+                typeIndex.put(type, index);
+            }
+            typeRefs[i] = index;
+            colorRefs[i] = argbRef(furniture.getArgb(i), palette, paletteIndex);
+        }
+
+        writeVarInt(types.size());
+        for (FurnitureType type : types) {
+            writeString(type.name());
+        }
+        writeVarInt(palette.size());
+        for (int argb : palette) {
+            writeInt(argb);
+        }
+        writeVarInt(wallRef);
+        writeVarInt(floorRef);
+
+        // Furniture columns
+        for (int i = 0; i < n; i++) {
+            writeVarInt(typeRefs[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            writeSignedVarInt(furniture.getX(i));
+        }
+        for (int i = 0; i < n; i++) {
+            writeSignedVarInt(furniture.getY(i));
+        }
+        for (int i = 0; i < n; i++) {
+            writeSignedVarInt(furniture.getWidth(i));
+        }
+        for (int i = 0; i < n; i++) {
+            writeSignedVarInt(furniture.getHeight(i));
+        }
+        for (int i = 0; i < n; i++) {
+            writeCompactDouble(furniture.getRotation(i));
+        }
+        for (int i = 0; i < n; i++) {
+            writeVarInt(colorRefs[i]);
+        }
+    }
+
+    // 0 means "no color", otherwise palette index + 1
+    private static int colorRef(Color color, List<Integer> palette, Map<Integer, Integer> paletteIndex) {
+        return color != null ? argbRef(color.getRGB(), palette, paletteIndex) : 0;
+    }
+
+    private static int argbRef(int argb, List<Integer> palette, Map<Integer, Integer> paletteIndex) {
+        Integer index = paletteIndex.get(argb);
+        if (index == null) {
+            index = palette.size();
+            palette.add(argb);
+            paletteIndex.put(argb, index);
+        }
+        return index + 1;
+    }
+
+    private static long millis(java.util.Date date) {
+        return date != null ? date.getTime() : 0L;
+    }
+
+    // Primitive encoders
+
+    public void writeByte(int v) {
+        ensure(1);
+        buf[count++] = (byte) v;
+    }
+
+    public void writeInt(int v) {
+        ensure(4);
+        buf[count++] = (byte) (v >>> 24);
+        buf[count++] = (byte) (v >>> 16);
+        buf[count++] = (byte) (v >>> 8);
+        buf[count++] = (byte) v;
+    }
+
+    public void writeShort(int v) {
+        ensure(2);
+        buf[count++] = (byte) (v >>> 8);
+        buf[count++] = (byte) v;
+    }
+
+    public void writeVarInt(int v) {
+        ensure(5);
+        while ((v & ~0x7F) != 0) {
+            buf[count++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[count++] = (byte) v;
+    }
+
+    public void writeSignedVarInt(int v) {
+        writeVarInt((v << 1) ^ (v >> 31));
+    }
+
+    public void writeVarLong(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buf[count++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[count++] = (byte) v;
+    }
+
+    /**
+     * Writes a double as a varint of its bit-reversed representation, so round
+     * values like 0, 4.5 or 90 (zero low mantissa bits) take 1-3 bytes
+     */
+    public void writeCompactDouble(double v) {
+        writeVarLong(Long.reverse(Double.doubleToLongBits(v)));
+    }
+
+    // Strings are written as varint (UTF-8 length + 1), 0 meaning null
+    public void writeString(String s) {
+        if (s == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, buf, count, length);
+        count += length;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    public byte[] toByteArray() {
+        byte[] copy = new byte[count];
+        System.arraycopy(buf, 0, copy, 0, count);
+        return copy;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, count);
+    }
+
+    private void ensure(int extra) {
+        if (count + extra > buf.length) {
+            byte[] bigger = new byte[Math.max(buf.length * 2, count + extra)];
+            System.arraycopy(buf, 0, bigger, 0, count);
+            buf = bigger;
+        }
+    }
+}
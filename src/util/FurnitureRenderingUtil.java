@@ -1,443 +1,306 @@
 import java.awt.*;
-import java.awt.geom.Path2D;
 
 /**
- * Utility class for rendering furniture items in 3D
+ * Utility class for rendering furniture items in 3D.
+ *
+ * Each kind of furniture is laid out once per size as a {@link Mesh}, shared
+ * through {@link MeshCache}; drawing an item only moves, turns and colors
+ * that mesh. Legs, beams, bases and labels are mesh detail, left out of
+ * frames that are not detailed.
  */
 public class FurnitureRenderingUtil {
 
     /**
-     * Draws a generic furniture item in 3D
+     * Adds the faces of item i of the store to the frame
      */
-    public static void drawGenericFurniture3D(Graphics2D g2d, FurnitureItem item,
-                                              double scale, double rotationX, double rotationY,
-                                              boolean lightingEnabled) {
-        Point pos = item.getPosition();
-        Dimension size = item.getSize();
-
-        // Convert from 2D design coordinates to our 3D world
-        double x = (pos.x - 400) * scale; // Adjust based on your 2D coordinate system
-        double y = (pos.y - 300) * scale;
-
-        // Calculate 3D box for furniture
-        double width = size.width * scale;
-        double length = size.height * scale;
-        double height = 30 * scale; // Default height for furniture
-
-        // Adjust position to be relative to room center
-        double[][] boxPoints = {
-                // Bottom face
-                {x - width/2, y - length/2, 0},
-                {x + width/2, y - length/2, 0},
-                {x + width/2, y + length/2, 0},
-                {x - width/2, y + length/2, 0},
-                // Top face
-                {x - width/2, y - length/2, height},
-                {x + width/2, y - length/2, height},
-                {x + width/2, y + length/2, height},
-                {x - width/2, y + length/2, height}
-        };
-
-        // Project points
-        Point[] box2D = new Point[8];
-        for (int i = 0; i < 8; i++) {
-            box2D[i] = RenderingUtil.projectPoint(boxPoints[i], rotationX, rotationY);
-        }
+    public static void drawFurniture3D(FaceBuffer faces, FurnitureStore furniture, int i, Camera camera,
+                                       boolean lightingEnabled) {
+        Mesh mesh = MeshCache.getMesh(furniture.getType(i), furniture.getWidth(i), furniture.getHeight(i));
 
-        // Get furniture color
-        Color itemColor = item.getColor();
-        if (itemColor == null) {
-            itemColor = Color.orange; // Default color
-        }
+        int argb = furniture.getArgb(i);
+        Color itemColor = argb != 0 ? ShadeCache.getColor(argb) : Color.orange; // Default color
+        drawMesh3D(faces, mesh, furniture.getX(i) - 400, furniture.getY(i) - 300, furniture.getRotation(i),
+                itemColor, camera, lightingEnabled);
+    }
 
-        // Draw bottom face
-        g2d.setColor(RenderingUtil.applyLighting(itemColor, 0.8, lightingEnabled));
-        Path2D bottomFace = new Path2D.Double();
-        bottomFace.moveTo(box2D[0].x, box2D[0].y);
-        for (int i = 1; i < 4; i++) {
-            bottomFace.lineTo(box2D[i].x, box2D[i].y);
+    /**
+     * Adds the faces of a mesh placed at (x, y), turned by rotation degrees
+     * about that point, and colored from itemColor
+     */
+    public static void drawMesh3D(FaceBuffer faces, Mesh mesh, double x, double y, double rotation,
+                                  Color itemColor, Camera camera, boolean lightingEnabled) {
+        double cos = 1;
+        double sin = 0;
+        if (rotation != 0) {
+            double radians = Math.toRadians(rotation);
+            cos = Math.cos(radians);
+            sin = Math.sin(radians);
         }
-        bottomFace.closePath();
-        g2d.fill(bottomFace);
-        g2d.setColor(RenderingUtil.darker(itemColor));
-        g2d.draw(bottomFace);
 
-        // Draw sides with varied lighting
-        for (int i = 0; i < 4; i++) {
-            int next = (i + 1) % 4;
-            // Apply different lighting based on side orientation
-            double lightFactor = 0.9 - (i * 0.15);
-            g2d.setColor(RenderingUtil.applyLighting(itemColor, lightFactor, lightingEnabled));
-            Path2D sideFace = new Path2D.Double();
-            sideFace.moveTo(box2D[i].x, box2D[i].y);
-            sideFace.lineTo(box2D[next].x, box2D[next].y);
-            sideFace.lineTo(box2D[next + 4].x, box2D[next + 4].y);
-            sideFace.lineTo(box2D[i + 4].x, box2D[i + 4].y);
-            sideFace.closePath();
-            g2d.fill(sideFace);
-            g2d.setColor(RenderingUtil.darker(itemColor));
-            g2d.draw(sideFace);
+        boolean detailed = faces.isDetailed();
+        int vertexCount = detailed ? mesh.getVertexCount() : mesh.getCoreVertexCount();
+        int faceCount = detailed ? mesh.getFaceCount() : mesh.getCoreFaceCount();
+
+        ProjectionBuffer buffer = ProjectionBuffer.forCurrentThread();
+        int mark = buffer.mark();
+        for (int k = 0; k < vertexCount; k++) {
+            double localX = mesh.getX(k);
+            double localY = mesh.getY(k);
+            buffer.add(x + localX * cos - localY * sin, y + localX * sin + localY * cos, mesh.getZ(k));
+        }
+        buffer.project(camera, mark);
+
+        // Each tone's outline is the next tone down
+        Color dark = RenderingUtil.darker(itemColor);
+        Color darker = RenderingUtil.darker(dark);
+        Color darkest = RenderingUtil.darker(darker);
+        for (int f = 0; f < faceCount; f++) {
+            Color fill;
+            Color outline;
+            switch (mesh.getTone(f)) {
+                case Mesh.DARK:
+                    fill = dark;
+                    outline = darker;
+                    break;
+                case Mesh.DARKER:
+                    fill = darker;
+                    outline = darkest;
+                    break;
+                default:
+                    fill = itemColor;
+                    outline = dark;
+            }
+            faces.addQuad(buffer, mark + mesh.getCorner(f, 0), mark + mesh.getCorner(f, 1),
+                    mark + mesh.getCorner(f, 2), mark + mesh.getCorner(f, 3),
+                    RenderingUtil.applyLighting(fill, mesh.getLight(f), lightingEnabled), outline);
         }
 
-        // Draw top face
-        g2d.setColor(RenderingUtil.applyLighting(itemColor, 1.0, lightingEnabled)); // Top gets full light
-        Path2D topFace = new Path2D.Double();
-        topFace.moveTo(box2D[4].x, box2D[4].y);
-        for (int i = 5; i < 8; i++) {
-            topFace.lineTo(box2D[i].x, box2D[i].y);
+        if (detailed && mesh.getLabel() != null) {
+            int anchor = mark + mesh.getLabelVertex();
+            faces.addLabel(mesh.getLabel(), buffer.getScreenX(anchor) + mesh.getLabelOffsetX(),
+                    buffer.getScreenY(anchor) + mesh.getLabelOffsetY());
         }
-        topFace.closePath();
-        g2d.fill(topFace);
-        g2d.setColor(RenderingUtil.darker(itemColor));
-        g2d.draw(topFace);
-
-        // Draw label
-        g2d.setColor(Color.BLACK);
-        g2d.drawString(item.getType().getDisplayName(), box2D[4].x, box2D[4].y - 5);
+
+        buffer.release(mark);
     }
 
     /**
-     * Draws a chair in 3D with detailed features
+     * Lays out the mesh for furniture of the given type and footprint
      */
-    public static void drawChair3D(Graphics2D g2d, FurnitureItem item,
-                                   double scale, double rotationX, double rotationY,
-                                   boolean lightingEnabled) {
-        Point pos = item.getPosition();
-        Dimension size = item.getSize();
-        Color itemColor = item.getColor();
-
-        if (itemColor == null) {
-            itemColor = Color.orange;
+    public static Mesh buildMesh(FurnitureType type, double width, double length) {
+        Mesh mesh = new Mesh();
+        if (type == null) {
+            buildGenericFurniture(mesh, null, width, length);
+            return mesh;
+        }
+        switch (type) {
+            case CHAIR:
+                buildChair(mesh, width, length);
+                break;
+            case DINING_TABLE:
+                buildDiningTable(mesh, width, length);
+                break;
+            case SIDE_TABLE:
+                buildSideTable(mesh, width, length);
+                break;
+            default:
+                buildGenericFurniture(mesh, type.getDisplayName(), width, length);
         }
+        return mesh;
+    }
 
-        // Convert from 2D design coordinates to 3D world
-        double x = (pos.x - 400) * scale;
-        double y = (pos.y - 300) * scale;
+    /**
+     * Adds a box with proper lighting, shaded like {@link RenderingUtil#drawBox3D}
+     */
+    private static void addBox(Mesh mesh, double x, double y, double z,
+                               double width, double length, double height, int tone, double lightFactor) {
+        int v = mesh.addBox(x, y, z, width, length, height);
 
-        // Chair dimensions
-        double width = size.width * scale;
-        double length = size.height * scale;
-        double seatHeight = 20 * scale;
-        double backHeight = 40 * scale;
-        double legThickness = width * 0.1;
+        // Bottom face, wound to face down
+        mesh.addQuad(v, v + 3, v + 2, v + 1, tone, lightFactor * 0.7);
 
-        // Draw the chair seat (the main box)
-        double[][] seatPoints = {
-                // Bottom face
-                {x - width/2, y - length/2, 0},
-                {x + width/2, y - length/2, 0},
-                {x + width/2, y + length/2, 0},
-                {x - width/2, y + length/2, 0},
-                // Top face
-                {x - width/2, y - length/2, seatHeight},
-                {x + width/2, y - length/2, seatHeight},
-                {x + width/2, y + length/2, seatHeight},
-                {x - width/2, y + length/2, seatHeight}
-        };
-
-        // Draw the chair back (vertical box behind seat)
-        double backWidth = width * 0.8;
-        double backThickness = length * 0.15;
-        double[][] backPoints = {
-                // Bottom points (at seat level)
-                {x - backWidth/2, y + length/2 - backThickness, seatHeight},
-                {x + backWidth/2, y + length/2 - backThickness, seatHeight},
-                {x + backWidth/2, y + length/2, seatHeight},
-                {x - backWidth/2, y + length/2, seatHeight},
-                // Top points
-                {x - backWidth/2, y + length/2 - backThickness, seatHeight + backHeight},
-                {x + backWidth/2, y + length/2 - backThickness, seatHeight + backHeight},
-                {x + backWidth/2, y + length/2, seatHeight + backHeight},
-                {x - backWidth/2, y + length/2, seatHeight + backHeight}
-        };
-
-        // Project all the 3D points to 2D
-        Point[] seatPoints2D = new Point[8];
-        Point[] backPoints2D = new Point[8];
-
-        for (int i = 0; i < 8; i++) {
-            seatPoints2D[i] = RenderingUtil.projectPoint(seatPoints[i], rotationX, rotationY);
-            backPoints2D[i] = RenderingUtil.projectPoint(backPoints[i], rotationX, rotationY);
+        // Side faces
+        for (int i = 0; i < 4; i++) {
+            int next = (i + 1) % 4;
+            // Vary lighting by side
+            mesh.addQuad(v + i, v + next, v + next + 4, v + i + 4, tone, lightFactor * (1.0 - (i * 0.1)));
         }
 
-        // Draw the chair parts
-        // 1. First draw the legs
-        Color legColor = RenderingUtil.darker(RenderingUtil.darker(itemColor));
-
-        // Front left leg
-        RenderingUtil.drawBox3D(g2d,
-                x - width/2 + legThickness/2, y - length/2 + legThickness/2, 0,
-                legThickness, legThickness, seatHeight,
-                legColor, 0.9, rotationX, rotationY, lightingEnabled);
+        // Top face gets more light
+        mesh.addQuad(v + 4, v + 5, v + 6, v + 7, tone, lightFactor * 1.1);
+    }
 
-        // Front right leg
-        RenderingUtil.drawBox3D(g2d,
-                x + width/2 - legThickness*1.5, y - length/2 + legThickness/2, 0,
-                legThickness, legThickness, seatHeight,
-                legColor, 0.9, rotationX, rotationY, lightingEnabled);
+    /**
+     * Lays out a generic furniture item as a plain box
+     */
+    private static void buildGenericFurniture(Mesh mesh, String label, double width, double length) {
+        double height = 30; // Default height for furniture
 
-        // Back left leg
-        RenderingUtil.drawBox3D(g2d,
-                x - width/2 + legThickness/2, y + length/2 - legThickness*1.5, 0,
-                legThickness, legThickness, seatHeight,
-                legColor, 0.8, rotationX, rotationY, lightingEnabled);
+        // Bottom corners 0-3, top corners 4-7
+        int box = mesh.addBox(-width/2, -length/2, 0, width, length, height);
 
-        // Back right leg
-        RenderingUtil.drawBox3D(g2d,
-                x + width/2 - legThickness*1.5, y + length/2 - legThickness*1.5, 0,
-                legThickness, legThickness, seatHeight,
-                legColor, 0.8, rotationX, rotationY, lightingEnabled);
+        // Bottom face, wound to face down
+        mesh.addQuad(box, box + 3, box + 2, box + 1, Mesh.BASE, 0.8);
 
-        // 2. Draw the seat
-        Color seatColor = itemColor;
-        g2d.setColor(RenderingUtil.applyLighting(seatColor, 1.0, lightingEnabled));
+        // Sides with varied lighting
+        for (int i = 0; i < 4; i++) {
+            int next = (i + 1) % 4;
+            // Apply different lighting based on side orientation
+            double lightFactor = 0.9 - (i * 0.15);
+            mesh.addQuad(box + i, box + next, box + next + 4, box + i + 4, Mesh.BASE, lightFactor);
+        }
 
-        // Top face of seat
-        Path2D topFace = new Path2D.Double();
-        topFace.moveTo(seatPoints2D[4].x, seatPoints2D[4].y);
+        // Top face gets full light
+        mesh.addQuad(box + 4, box + 5, box + 6, box + 7, Mesh.BASE, 1.0);
 
-        for (int i = 5; i < 8; i++) {
-            topFace.lineTo(seatPoints2D[i].x, seatPoints2D[i].y);
+        mesh.beginDetail();
+        if (label != null) {
+            mesh.setLabel(label, -width/2, -length/2, height, 0, -5);
         }
+    }
+
+    /**
+     * Lays out a chair with detailed features
+     */
+    private static void buildChair(Mesh mesh, double width, double length) {
+        // Chair dimensions
+        double seatHeight = 20;
+        double backHeight = 40;
+        double legThickness = width * 0.1;
+
+        // 1. The seat (the main box), without a bottom
+        int seat = mesh.addBox(-width/2, -length/2, 0, width, length, seatHeight);
 
-        topFace.closePath();
-        g2d.fill(topFace);
-        g2d.setColor(RenderingUtil.darker(seatColor));
-        g2d.draw(topFace);
+        // Top face of seat
+        mesh.addQuad(seat + 4, seat + 5, seat + 6, seat + 7, Mesh.BASE, 1.0);
 
         // Sides of seat
         for (int i = 0; i < 4; i++) {
             int next = (i + 1) % 4;
             // Apply different lighting based on side orientation
             double lightFactor = 0.9 - (i * 0.1);
-            g2d.setColor(RenderingUtil.applyLighting(seatColor, lightFactor, lightingEnabled));
-
-            Path2D sideFace = new Path2D.Double();
-            sideFace.moveTo(seatPoints2D[i].x, seatPoints2D[i].y);
-            sideFace.lineTo(seatPoints2D[next].x, seatPoints2D[next].y);
-            sideFace.lineTo(seatPoints2D[next + 4].x, seatPoints2D[next + 4].y);
-            sideFace.lineTo(seatPoints2D[i + 4].x, seatPoints2D[i + 4].y);
-            sideFace.closePath();
-
-            g2d.fill(sideFace);
-            g2d.setColor(RenderingUtil.darker(seatColor));
-            g2d.draw(sideFace);
+            mesh.addQuad(seat + i, seat + next, seat + next + 4, seat + i + 4, Mesh.BASE, lightFactor);
         }
 
-        // 3. Draw the chair back
-        Color backColor = RenderingUtil.darker(itemColor);
+        // 2. The chair back (vertical box behind seat)
+        double backWidth = width * 0.8;
+        double backThickness = length * 0.15;
+        int back = mesh.addBox(-backWidth/2, length/2 - backThickness, seatHeight,
+                backWidth, backThickness, backHeight);
 
         // Front face of back
-        g2d.setColor(RenderingUtil.applyLighting(backColor, 0.95, lightingEnabled));
-        Path2D backFrontFace = new Path2D.Double();
-        backFrontFace.moveTo(backPoints2D[0].x, backPoints2D[0].y);
-        backFrontFace.lineTo(backPoints2D[1].x, backPoints2D[1].y);
-        backFrontFace.lineTo(backPoints2D[5].x, backPoints2D[5].y);
-        backFrontFace.lineTo(backPoints2D[4].x, backPoints2D[4].y);
-        backFrontFace.closePath();
-
-        g2d.fill(backFrontFace);
-        g2d.setColor(RenderingUtil.darker(backColor));
-        g2d.draw(backFrontFace);
+        mesh.addQuad(back, back + 1, back + 5, back + 4, Mesh.DARK, 0.95);
 
         // Top of back
-        g2d.setColor(RenderingUtil.applyLighting(backColor, 1.0, lightingEnabled));
-        Path2D backTopFace = new Path2D.Double();
-        backTopFace.moveTo(backPoints2D[4].x, backPoints2D[4].y);
-        backTopFace.lineTo(backPoints2D[5].x, backPoints2D[5].y);
-        backTopFace.lineTo(backPoints2D[6].x, backPoints2D[6].y);
-        backTopFace.lineTo(backPoints2D[7].x, backPoints2D[7].y);
-        backTopFace.closePath();
-
-        g2d.fill(backTopFace);
-        g2d.setColor(RenderingUtil.darker(backColor));
-        g2d.draw(backTopFace);
+        mesh.addQuad(back + 4, back + 5, back + 6, back + 7, Mesh.DARK, 1.0);
 
         // Sides of back
-        g2d.setColor(RenderingUtil.applyLighting(backColor, 0.85, lightingEnabled));
-        Path2D backSide1 = new Path2D.Double();
-        backSide1.moveTo(backPoints2D[1].x, backPoints2D[1].y);
-        backSide1.lineTo(backPoints2D[2].x, backPoints2D[2].y);
-        backSide1.lineTo(backPoints2D[6].x, backPoints2D[6].y);
-        backSide1.lineTo(backPoints2D[5].x, backPoints2D[5].y);
-        backSide1.closePath();
-
-        g2d.fill(backSide1);
-        g2d.setColor(RenderingUtil.darker(backColor));
-        g2d.draw(backSide1);
-
-        g2d.setColor(RenderingUtil.applyLighting(backColor, 0.8, lightingEnabled));
-        Path2D backSide2 = new Path2D.Double();
-        backSide2.moveTo(backPoints2D[0].x, backPoints2D[0].y);
-        backSide2.lineTo(backPoints2D[3].x, backPoints2D[3].y);
-        backSide2.lineTo(backPoints2D[7].x, backPoints2D[7].y);
-        backSide2.lineTo(backPoints2D[4].x, backPoints2D[4].y);
-        backSide2.closePath();
-
-        g2d.fill(backSide2);
-        g2d.setColor(RenderingUtil.darker(backColor));
-        g2d.draw(backSide2);
-
-        // Back face of back (usually not visible)
-        g2d.setColor(RenderingUtil.applyLighting(backColor, 0.7, lightingEnabled));
-        Path2D backRearFace = new Path2D.Double();
-        backRearFace.moveTo(backPoints2D[2].x, backPoints2D[2].y);
-        backRearFace.lineTo(backPoints2D[3].x, backPoints2D[3].y);
-        backRearFace.lineTo(backPoints2D[7].x, backPoints2D[7].y);
-        backRearFace.lineTo(backPoints2D[6].x, backPoints2D[6].y);
-        backRearFace.closePath();
-
-        g2d.fill(backRearFace);
-        g2d.setColor(RenderingUtil.darker(backColor));
-        g2d.draw(backRearFace);
-
-        // Add label
-        g2d.setColor(Color.BLACK);
-        g2d.drawString("Chair", seatPoints2D[4].x, seatPoints2D[4].y - 15);
+        mesh.addQuad(back + 1, back + 2, back + 6, back + 5, Mesh.DARK, 0.85);
+        mesh.addQuad(back + 3, back, back + 4, back + 7, Mesh.DARK, 0.8);
+
+        // Back face of back
+        mesh.addQuad(back + 2, back + 3, back + 7, back + 6, Mesh.DARK, 0.7);
+
+        // 3. The legs, hidden inside the seat from most angles
+        mesh.beginDetail();
+
+        // Front left leg
+        addBox(mesh, -width/2 + legThickness/2, -length/2 + legThickness/2, 0,
+                legThickness, legThickness, seatHeight, Mesh.DARKER, 0.9);
+
+        // Front right leg
+        addBox(mesh, width/2 - legThickness*1.5, -length/2 + legThickness/2, 0,
+                legThickness, legThickness, seatHeight, Mesh.DARKER, 0.9);
+
+        // Back left leg
+        addBox(mesh, -width/2 + legThickness/2, length/2 - legThickness*1.5, 0,
+                legThickness, legThickness, seatHeight, Mesh.DARKER, 0.8);
+
+        // Back right leg
+        addBox(mesh, width/2 - legThickness*1.5, length/2 - legThickness*1.5, 0,
+                legThickness, legThickness, seatHeight, Mesh.DARKER, 0.8);
+
+        // Label
+        mesh.setLabel("Chair", -width/2, -length/2, seatHeight, 0, -15);
     }
 
     /**
-     * Draws a dining table in 3D with detailed features
+     * Lays out a dining table with detailed features
      */
-    public static void drawDiningTable3D(Graphics2D g2d, FurnitureItem item,
-                                         double scale, double rotationX, double rotationY,
-                                         boolean lightingEnabled) {
-        Point pos = item.getPosition();
-        Dimension size = item.getSize();
-        Color itemColor = item.getColor();
-
-        if (itemColor == null) {
-            itemColor = Color.orange;
-        }
-
-        // Convert from 2D design coordinates to 3D world
-        double x = (pos.x - 400) * scale;
-        double y = (pos.y - 300) * scale;
-
+    private static void buildDiningTable(Mesh mesh, double width, double length) {
         // Table dimensions
-        double width = size.width * scale;
-        double length = size.height * scale;
-        double tableTopHeight = 40 * scale;
-        double tableTopThickness = 5 * scale;
+        double tableTopHeight = 40;
+        double tableTopThickness = 5;
         double legThickness = width * 0.06;
 
-        // Draw the table legs first
-        Color legColor = RenderingUtil.darker(RenderingUtil.darker(itemColor));
+        // The table top (with a slight overhang)
+        double overhang = 5;
+        addBox(mesh, -width/2 - overhang, -length/2 - overhang, tableTopHeight,
+                width + 2*overhang, length + 2*overhang, tableTopThickness, Mesh.BASE, 1.0);
+
+        // Legs and beams are detail
+        mesh.beginDetail();
 
         // Front left leg
-        RenderingUtil.drawBox3D(g2d,
-                x - width/2 + legThickness/2, y - length/2 + legThickness/2, 0,
-                legThickness, legThickness, tableTopHeight,
-                legColor, 0.9, rotationX, rotationY, lightingEnabled);
+        addBox(mesh, -width/2 + legThickness/2, -length/2 + legThickness/2, 0,
+                legThickness, legThickness, tableTopHeight, Mesh.DARKER, 0.9);
 
         // Front right leg
-        RenderingUtil.drawBox3D(g2d,
-                x + width/2 - legThickness*1.5, y - length/2 + legThickness/2, 0,
-                legThickness, legThickness, tableTopHeight,
-                legColor, 0.9, rotationX, rotationY, lightingEnabled);
+        addBox(mesh, width/2 - legThickness*1.5, -length/2 + legThickness/2, 0,
+                legThickness, legThickness, tableTopHeight, Mesh.DARKER, 0.9);
 
         // Back left leg
-        RenderingUtil.drawBox3D(g2d,
-                x - width/2 + legThickness/2, y + length/2 - legThickness*1.5, 0,
-                legThickness, legThickness, tableTopHeight,
-                legColor, 0.8, rotationX, rotationY, lightingEnabled);
+        addBox(mesh, -width/2 + legThickness/2, length/2 - legThickness*1.5, 0,
+                legThickness, legThickness, tableTopHeight, Mesh.DARKER, 0.8);
 
         // Back right leg
-        RenderingUtil.drawBox3D(g2d,
-                x + width/2 - legThickness*1.5, y + length/2 - legThickness*1.5, 0,
-                legThickness, legThickness, tableTopHeight,
-                legColor, 0.8, rotationX, rotationY, lightingEnabled);
+        addBox(mesh, width/2 - legThickness*1.5, length/2 - legThickness*1.5, 0,
+                legThickness, legThickness, tableTopHeight, Mesh.DARKER, 0.8);
 
-        // Draw horizontal support beams between legs for stability
+        // Horizontal support beams between legs for stability
         // Front beam
-        RenderingUtil.drawBox3D(g2d,
-                x - width/2 + legThickness, y - length/2 + legThickness/2, tableTopHeight/3,
-                width - 2*legThickness, legThickness, legThickness,
-                legColor, 0.85, rotationX, rotationY, lightingEnabled);
+        addBox(mesh, -width/2 + legThickness, -length/2 + legThickness/2, tableTopHeight/3,
+                width - 2*legThickness, legThickness, legThickness, Mesh.DARKER, 0.85);
 
         // Back beam
-        RenderingUtil.drawBox3D(g2d,
-                x - width/2 + legThickness, y + length/2 - legThickness*1.5, tableTopHeight/3,
-                width - 2*legThickness, legThickness, legThickness,
-                legColor, 0.8, rotationX, rotationY, lightingEnabled);
+        addBox(mesh, -width/2 + legThickness, length/2 - legThickness*1.5, tableTopHeight/3,
+                width - 2*legThickness, legThickness, legThickness, Mesh.DARKER, 0.8);
 
         // Left beam
-        RenderingUtil.drawBox3D(g2d,
-                x - width/2 + legThickness/2, y - length/2 + legThickness*1.5, tableTopHeight/3,
-                legThickness, length - 3*legThickness, legThickness,
-                legColor, 0.83, rotationX, rotationY, lightingEnabled);
+        addBox(mesh, -width/2 + legThickness/2, -length/2 + legThickness*1.5, tableTopHeight/3,
+                legThickness, length - 3*legThickness, legThickness, Mesh.DARKER, 0.83);
 
         // Right beam
-        RenderingUtil.drawBox3D(g2d,
-                x + width/2 - legThickness*1.5, y - length/2 + legThickness*1.5, tableTopHeight/3,
-                legThickness, length - 3*legThickness, legThickness,
-                legColor, 0.82, rotationX, rotationY, lightingEnabled);
-
-        // Draw the table top (with a slight overhang)
-        double overhang = 5 * scale;
-        RenderingUtil.drawBox3D(g2d,
-                x - width/2 - overhang, y - length/2 - overhang, tableTopHeight,
-                width + 2*overhang, length + 2*overhang, tableTopThickness,
-                itemColor, 1.0, rotationX, rotationY, lightingEnabled);
-
-        // Add label
-        Point tableTopPoint = RenderingUtil.projectPoint(
-                new double[] {x, y, tableTopHeight + tableTopThickness},
-                rotationX, rotationY);
-        g2d.setColor(Color.BLACK);
-        g2d.drawString("Dining Table", tableTopPoint.x - 30, tableTopPoint.y - 5);
+        addBox(mesh, width/2 - legThickness*1.5, -length/2 + legThickness*1.5, tableTopHeight/3,
+                legThickness, length - 3*legThickness, legThickness, Mesh.DARKER, 0.82);
+
+        // Label
+        mesh.setLabel("Dining Table", 0, 0, tableTopHeight + tableTopThickness, -30, -5);
     }
 
     /**
-     * Draws a side table in 3D with detailed features
+     * Lays out a side table with detailed features
      */
-    public static void drawSideTable3D(Graphics2D g2d, FurnitureItem item,
-                                       double scale, double rotationX, double rotationY,
-                                       boolean lightingEnabled) {
-        Point pos = item.getPosition();
-        Dimension size = item.getSize();
-        Color itemColor = item.getColor();
-
-        if (itemColor == null) {
-            itemColor = Color.orange;
-        }
-
-        // Convert from 2D design coordinates to 3D world
-        double x = (pos.x - 400) * scale;
-        double y = (pos.y - 300) * scale;
-
+    private static void buildSideTable(Mesh mesh, double width, double length) {
         // Table dimensions
-        double width = size.width * scale;
-        double length = size.height * scale;
-        double tableHeight = 30 * scale;
-        double tableTopThickness = 3 * scale;
+        double tableHeight = 30;
+        double tableTopThickness = 3;
         double legThickness = Math.min(width, length) * 0.15;
 
-        // For side table, let's make a pedestal style with a central column
-        // Draw the central support column
-        RenderingUtil.drawBox3D(g2d,
-                x - legThickness/2, y - legThickness/2, 0,
-                legThickness, legThickness, tableHeight,
-                RenderingUtil.darker(itemColor), 0.9, rotationX, rotationY, lightingEnabled);
+        // The table top
+        addBox(mesh, -width/2, -length/2, tableHeight, width, length, tableTopThickness, Mesh.BASE, 1.0);
 
-        // Draw a base
+        // For side table, let's make a pedestal style with a central column,
+        // which is detail
+        mesh.beginDetail();
+        addBox(mesh, -legThickness/2, -legThickness/2, 0,
+                legThickness, legThickness, tableHeight, Mesh.DARK, 0.9);
+
+        // A base
         double baseSize = Math.min(width, length) * 0.6;
-        RenderingUtil.drawBox3D(g2d,
-                x - baseSize/2, y - baseSize/2, 0,
-                baseSize, baseSize, 3 * scale,
-                RenderingUtil.darker(RenderingUtil.darker(itemColor)), 0.8, rotationX, rotationY, lightingEnabled);
-
-        // Draw the table top (with a slight overhang)
-        RenderingUtil.drawBox3D(g2d,
-                x - width/2, y - length/2, tableHeight,
-                width, length, tableTopThickness,
-                itemColor, 1.0, rotationX, rotationY, lightingEnabled);
-
-        // Add label
-        Point tableTopPoint = RenderingUtil.projectPoint(
-                new double[] {x, y, tableHeight + tableTopThickness},
-                rotationX, rotationY);
-        g2d.setColor(Color.BLACK);
-        g2d.drawString("Side Table", tableTopPoint.x - 25, tableTopPoint.y - 5);
+        addBox(mesh, -baseSize/2, -baseSize/2, 0, baseSize, baseSize, 3, Mesh.DARKER, 0.8);
+
+        // Label
+        mesh.setLabel("Side Table", 0, 0, tableHeight + tableTopThickness, -25, -5);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Furniture meshes shared between every item of the same type and size.
+ *
+ * Building a mesh lays out legs, seat, back and top once; after that all
+ * chairs of one size draw from the same mesh and only their position,
+ * rotation and color differ. The least recently used meshes are dropped
+ * once more than {@link #MAX_MESHES} sizes are in use.
+ */
+public class MeshCache {
+    public static final int MAX_MESHES = 256;
+
+    private static final Map<Long, Mesh> meshes = new LinkedHashMap<Long, Mesh>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Mesh> eldest) {
+            return size() > MAX_MESHES;
+        }
+    };
+    private static long hits;
+    private static long misses;
+
+    /**
+     * Returns the mesh for furniture of the given type and footprint,
+     * building it the first time
+     */
+    public static synchronized Mesh getMesh(FurnitureType type, int width, int length) {
+        Long key = key(type, width, length);
+        Mesh mesh = meshes.get(key);
+        if (mesh != null) {
+            hits++;
+            return mesh;
+        }
+        misses++;
+        mesh = FurnitureRenderingUtil.buildMesh(type, width, length);
+        meshes.put(key, mesh);
+        return mesh;
+    }
+
+    public static synchronized int size() {
+        return meshes.size();
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized void clear() {
+        meshes.clear();
+    }
+
+    // Type and both sides packed into one number
+    private static long key(FurnitureType type, int width, int length) {
+        long ordinal = type != null ? type.ordinal() + 1 : 0;
+        return ordinal << 48 | (width & 0xFFFFFFL) << 24 | (length & 0xFFFFFFL);
+    }
+}
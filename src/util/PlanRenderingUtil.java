@@ -0,0 +1,400 @@
+import java.awt.*;
+import java.util.BitSet;
+
+/**
+ * Utility class for drawing the 2D floor plan: the room outline and the
+ * furniture seen from above, in panel coordinates.
+ *
+ * Used by the 2D editor and by {@link DesignRenderer}, so the plan looks the
+ * same on screen and in exported images.
+ */
+public class PlanRenderingUtil {
+    // Drawn over furniture that overlaps other furniture or a wall
+    public static final Color COLLISION_COLOR = new Color(255, 0, 0, 90);
+
+    /**
+     * Draws the room centered in a panel of the given size and returns its
+     * floor outline, or null if the panel is too small to draw it
+     */
+    public static RoomOutline drawRoom(Graphics2D g2d, Room room, int panelWidth, int panelHeight) {
+        if (panelWidth <= 0 || panelHeight <= 0) return null;
+
+        // Draw a border around the panel to make it visible
+        g2d.setColor(Color.LIGHT_GRAY);
+        g2d.drawRect(0, 0, panelWidth-1, panelHeight-1);
+
+        // Calculate the size of the room to fit panel
+        int maxSize = Math.min(panelWidth - 60, panelHeight - 60);
+
+        if (maxSize <= 0) return null;
+
+        // Get the room's shape
+        String roomShape = room.getShape().toLowerCase();
+
+        // Draw the room based on its shape
+        RoomOutline outline;
+        g2d.setColor(room.getFloorColor());
+
+        switch (roomShape) {
+            case "rectangle":
+                outline = drawRectangularRoom(g2d, room, panelWidth, panelHeight, maxSize);
+                break;
+            case "l-shape":
+            case "l-shaped":
+            case "l shape":
+            case "l shaped":
+            case "l":
+                outline = drawLShapedRoom(g2d, panelWidth, panelHeight, maxSize);
+                break;
+            case "t-shape":
+            case "t-shaped":
+            case "t shape":
+            case "t shaped":
+            case "t":
+                outline = drawTShapedRoom(g2d, panelWidth, panelHeight, maxSize);
+                break;
+            default:
+                // Default to square for unknown shapes
+                if (RenderStats.isLogging()) {
+                    System.out.println("\n=== ROOM DEBUG INFO 1 ===");
+                }
+                int x = (panelWidth - maxSize) / 2;
+                int y = (panelHeight - maxSize) / 2;
+                g2d.fillRect(x, y, maxSize, maxSize);
+                g2d.setColor(Color.BLACK);
+                g2d.drawRect(x, y, maxSize, maxSize);
+                outline = RoomOutline.rectangle(x, y, maxSize, maxSize);
+        }
+
+        // Draw a coordinate system to help debug
+        g2d.setColor(Color.GRAY);
+        g2d.drawLine(panelWidth/2, 0, panelWidth/2, panelHeight);
+        g2d.drawLine(0, panelHeight/2, panelWidth, panelHeight/2);
+
+        return outline;
+    }
+
+    private static RoomOutline drawRectangularRoom(Graphics2D g2d, Room room, int panelWidth, int panelHeight,
+                                                   int maxSize) {
+        // Get actual dimensions from the room
+        double roomWidth = room.getWidth();
+        double roomLength = room.getLength();
+
+        // Calculate the aspect ratio (width:length)
+        double aspectRatio = roomWidth / roomLength;
+
+        // Initialize display dimensions
+        int displayWidth, displayHeight;
+
+        // Determine which dimension should be set to maxSize
+        if (aspectRatio > 1.0) {
+            // Room is wider than long
+            displayWidth = maxSize;
+            displayHeight = (int)(maxSize / aspectRatio);
+        } else {
+            // Room is longer than wide
+            displayHeight = maxSize;
+            displayWidth = (int)(maxSize * aspectRatio);
+        }
+
+        // Make sure neither dimension exceeds panel constraints
+        if (displayWidth > panelWidth - 60) {
+            displayWidth = panelWidth - 60;
+            displayHeight = (int)(displayWidth / aspectRatio);
+        }
+
+        if (displayHeight > panelHeight - 60) {
+            displayHeight = panelHeight - 60;
+            displayWidth = (int)(displayHeight * aspectRatio);
+        }
+
+        // Center the room in the panel
+        int x = (panelWidth - displayWidth) / 2;
+        int y = (panelHeight - displayHeight) / 2;
+
+        // Draw the room
+        g2d.fillRect(x, y, displayWidth, displayHeight);
+
+        // Add a border
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(x, y, displayWidth, displayHeight);
+
+        // Add dimension labels for clarity
+        g2d.setFont(new Font("Arial", Font.PLAIN, 12));
+        FontMetrics fm = g2d.getFontMetrics();
+
+        // Width label (horizontal)
+        String widthLabel = String.format("%.1fm", roomWidth);
+        int textWidth = fm.stringWidth(widthLabel);
+        g2d.drawString(widthLabel, x + (displayWidth - textWidth) / 2, y - 5);
+
+        // Length label (vertical)
+        String lengthLabel = String.format("%.1fm", roomLength);
+        g2d.drawString(lengthLabel, x - fm.stringWidth(lengthLabel) - 5, y + displayHeight / 2);
+
+        return RoomOutline.rectangle(x, y, displayWidth, displayHeight);
+    }
+
+    private static RoomOutline drawLShapedRoom(Graphics2D g2d, int panelWidth, int panelHeight, int maxSize) {
+        int baseSize = (int)(maxSize * 0.8);
+        int extension = (int)(maxSize * 0.4);
+
+        int x = (panelWidth - baseSize) / 2;
+        int y = (panelHeight - baseSize) / 2;
+
+        // Draw L-shape using two rectangles
+        // Main rectangle
+        g2d.fillRect(x, y, baseSize, baseSize);
+
+        // Extension rectangle (to form the L)
+        g2d.fillRect(x - extension, y + baseSize - extension, extension, extension);
+
+        // Draw border
+        g2d.setColor(Color.BLACK);
+        // Draw the outer L shape border
+        g2d.drawRect(x, y, baseSize, baseSize);
+        g2d.drawRect(x - extension, y + baseSize - extension, extension, extension);
+
+        // Draw the inner corner edge (to complete the L shape)
+        g2d.drawLine(x, y + baseSize - extension, x, y + baseSize);
+        g2d.drawLine(x, y + baseSize - extension, x - extension, y + baseSize - extension);
+
+        return new RoomOutline(
+                new double[] {x, x + baseSize, x + baseSize, x - extension, x - extension, x},
+                new double[] {y, y, y + baseSize, y + baseSize, y + baseSize - extension, y + baseSize - extension});
+    }
+
+    private static RoomOutline drawTShapedRoom(Graphics2D g2d, int panelWidth, int panelHeight, int maxSize) {
+        int baseWidth = (int)(maxSize * 0.8);
+        int baseHeight = (int)(maxSize * 0.6);
+        int topWidth = (int)(maxSize * 0.4);
+        int topHeight = (int)(maxSize * 0.4);
+
+        int baseX = (panelWidth - baseWidth) / 2;
+        int baseY = (panelHeight - baseHeight + topHeight) / 2;
+        int topX = (panelWidth - topWidth) / 2;
+        int topY = baseY - topHeight;
+
+        // Draw T-shape using two rectangles
+        // Horizontal bar of T
+        g2d.fillRect(baseX, baseY, baseWidth, baseHeight);
+
+        // Vertical bar of T
+        g2d.fillRect(topX, topY, topWidth, topHeight);
+
+        // Draw border
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(baseX, baseY, baseWidth, baseHeight);
+        g2d.drawRect(topX, topY, topWidth, topHeight);
+
+        // Draw connecting lines to complete the shape
+        g2d.drawLine(topX, baseY, baseX, baseY);
+        g2d.drawLine(topX + topWidth, baseY, baseX + baseWidth, baseY);
+
+        return new RoomOutline(
+                new double[] {topX, topX + topWidth, topX + topWidth, baseX + baseWidth,
+                        baseX + baseWidth, baseX, baseX, topX},
+                new double[] {topY, topY, baseY, baseY, baseY + baseHeight, baseY + baseHeight, baseY, baseY});
+    }
+
+    /**
+     * Draws every item of the store, outlining the selected index (or none
+     * if negative) and tinting the colliding ones. Returns how many items
+     * were drawn, leaving out those outside the clip.
+     */
+    public static int drawFurniture(Graphics g, FurnitureStore furniture, int selected, BitSet colliding) {
+        // When only part of the plan is repainted, skip items outside it
+        Rectangle clip = g.getClipBounds();
+        FontMetrics fm = g.getFontMetrics();
+        int drawn = 0;
+
+        // Walk the furniture arrays and draw each item
+        for (int i = 0; i < furniture.size(); i++) {
+            if (clip != null && !intersects(clip, furniture, i, fm)) continue;
+
+            FurnitureType type = furniture.getType(i);
+            int x = furniture.getX(i);
+            int y = furniture.getY(i);
+            int width = furniture.getWidth(i);
+            int height = furniture.getHeight(i);
+            Color color = ShadeCache.getColor(furniture.getArgb(i));
+
+            if (type == null) continue;
+
+            // Copy the furniture from its sprite, or draw it when it has none
+            if (!SpriteCache.drawSprite(g, type, x, y, width, height, color)) {
+                drawGlyph(g, type, x, y, width, height, color);
+            }
+
+            // Highlight furniture that overlaps something or pokes through a wall
+            if (colliding.get(i)) {
+                g.setColor(COLLISION_COLOR);
+                g.fillRect(x, y, width, height);
+            }
+
+            // Highlight selected item
+            if (i == selected) {
+                g.setColor(Color.RED);
+                g.drawRect(x - 2, y - 2, width + 4, height + 4);
+            }
+
+            // Draw label
+            g.setColor(Color.BLACK);
+            g.drawString(type.getDisplayName(), x, y - 5);
+            drawn++;
+        }
+        return drawn;
+    }
+
+    /**
+     * Draws one piece of furniture, without its label or highlights
+     */
+    public static void drawGlyph(Graphics g, FurnitureType type, int x, int y, int width, int height, Color color) {
+        // Draw the furniture based on its type
+        switch (type) {
+            case CHAIR:
+                drawChair(g, x, y, width, height, color);
+                break;
+            case DINING_TABLE:
+                drawDiningTable(g, x, y, width, height, color);
+                break;
+            case SIDE_TABLE:
+                drawSideTable(g, x, y, width, height, color);
+                break;
+            default:
+                // Default drawing for unknown types
+                g.setColor(color);
+                g.fillRect(x, y, width, height);
+        }
+    }
+
+    /**
+     * Returns the area {@link #drawGlyph} covers for furniture at (0, 0),
+     * with a pixel to spare all round for antialiased edges
+     */
+    public static Rectangle getGlyphBounds(FurnitureType type, int width, int height) {
+        int top = 0;
+        int bottom = height + 1;
+        switch (type) {
+            case CHAIR:
+                top = -(int)(height * 0.8);
+                bottom = Math.max(bottom, height + height/4);
+                break;
+            case DINING_TABLE:
+            case SIDE_TABLE:
+                bottom = Math.max(bottom, height + height/3);
+                break;
+            default:
+        }
+        return new Rectangle(-1, top - 1, width + 3, bottom - top + 2);
+    }
+
+    /**
+     * Returns the area that drawing item i covers: its legs, chair back,
+     * label and selection outline included. Returns null for items that are
+     * not drawn.
+     */
+    public static Rectangle getItemBounds(FurnitureStore furniture, int i, FontMetrics fm) {
+        FurnitureType type = furniture.getType(i);
+        if (type == null) return null;
+        int x = furniture.getX(i);
+        int y = furniture.getY(i);
+        int width = furniture.getWidth(i);
+        int height = furniture.getHeight(i);
+
+        // Selection outline, then whatever sticks out of the footprint
+        int top = y - 2;
+        int bottom = y + height + 3;
+        switch (type) {
+            case CHAIR:
+                top = Math.min(top, y - (int)(height * 0.8));
+                bottom = Math.max(bottom, y + height + height/4);
+                break;
+            case DINING_TABLE:
+            case SIDE_TABLE:
+                bottom = Math.max(bottom, y + height + height/3);
+                break;
+            default:
+        }
+
+        // Label above the item
+        top = Math.min(top, y - 5 - fm.getAscent());
+        int right = Math.max(x + width + 3, x + fm.stringWidth(type.getDisplayName()));
+        return new Rectangle(x - 2, top, right - (x - 2), bottom - top);
+    }
+
+    private static boolean intersects(Rectangle clip, FurnitureStore furniture, int i, FontMetrics fm) {
+        Rectangle bounds = getItemBounds(furniture, i, fm);
+        return bounds != null && clip.intersects(bounds);
+    }
+
+    // Draw a chair with a more realistic shape
+    private static void drawChair(Graphics g, int x, int y, int width, int height, Color color) {
+        // Use darker color for chair legs and back
+        Color darkerColor = RenderingUtil.darker(color);
+
+        // Chair seat
+        g.setColor(color);
+        g.fillRect(x, y, width, height);
+
+        // Chair back
+        int backHeight = (int)(height * 0.8);
+        g.setColor(darkerColor);
+        g.fillRect(x, y - backHeight, width/3, backHeight);
+
+        // Chair legs - just small rectangles at corners
+        int legWidth = width/8;
+        int legHeight = height/4;
+
+        g.setColor(darkerColor);
+        // Front legs
+        g.fillRect(x, y + height, legWidth, legHeight);
+        g.fillRect(x + width - legWidth, y + height, legWidth, legHeight);
+
+        // Back legs - extend from the back
+        g.fillRect(x, y + height, legWidth, legHeight);
+        g.fillRect(x + width/3 - legWidth, y + height, legWidth, legHeight);
+    }
+
+    // Draw a dining table with more details
+    private static void drawDiningTable(Graphics g, int x, int y, int width, int height, Color color) {
+        // Darker color for table legs
+        Color darkerColor = RenderingUtil.darker(color);
+
+        // Tabletop
+        g.setColor(color);
+        g.fillRect(x, y, width, height);
+        g.setColor(Color.BLACK);
+        g.drawRect(x, y, width, height);
+
+        // Table legs
+        int legWidth = width/10;
+        int legHeight = height/3;
+
+        g.setColor(darkerColor);
+        // Draw four legs at corners
+        g.fillRect(x + legWidth, y + height, legWidth, legHeight);
+        g.fillRect(x + width - 2*legWidth, y + height, legWidth, legHeight);
+        g.fillRect(x + legWidth, y + height, legWidth, legHeight);
+        g.fillRect(x + width - 2*legWidth, y + height, legWidth, legHeight);
+    }
+
+    // Draw a side table with details
+    private static void drawSideTable(Graphics g, int x, int y, int width, int height, Color color) {
+        // Tabletop
+        g.setColor(color);
+        g.fillRect(x, y, width, height);
+        g.setColor(Color.BLACK);
+        g.drawRect(x, y, width, height);
+
+        // Central leg or support
+        int legWidth = width/3;
+        int legHeight = height/3;
+
+        g.setColor(RenderingUtil.dimmer(color));
+
+        // Central support
+        int centerX = x + (width - legWidth)/2;
+        g.fillRect(centerX, y + height, legWidth, legHeight);
+    }
+}
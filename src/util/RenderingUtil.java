@@ -1,27 +1,16 @@
 import java.awt.*;
-import java.awt.geom.Path2D;
 
 public class RenderingUtil {
     private static double ambientLight = 0.3; // Base lighting level
     private static double directionalLight = 0.7; // Directional light strength
 
     /**
-     * Projects a 3D point onto a 2D plane based on rotation angles
+     * Projects a 3D point onto a 2D plane based on rotation angles.
+     * Builds a new camera each call; when projecting many points create one
+     * {@link Camera} per frame instead.
      */
     public static Point projectPoint(double[] point3D, double rotX, double rotY) {
-        // Convert degrees to radians
-        double radX = Math.toRadians(rotX);
-        double radY = Math.toRadians(rotY);
-
-        // Apply rotations
-        double x = point3D[0];
-        double y = point3D[1] * Math.cos(radX) - point3D[2] * Math.sin(radX);
-        double z = point3D[1] * Math.sin(radX) + point3D[2] * Math.cos(radX);
-        double x2 = x * Math.cos(radY) + z * Math.sin(radY);
-        double z2 = -x * Math.sin(radY) + z * Math.cos(radY);
-
-        // Simple projection (orthographic)
-        return new Point((int)x2, (int)y);
+        return new Camera(rotX, rotY, 1.0).project(point3D);
     }
 
     /**
@@ -31,10 +20,23 @@ public class RenderingUtil {
         if (!lightingEnabled) {
             return baseColor;
         }
+        return ShadeCache.getLit(baseColor, lightingFactor);
+    }
 
-        // Calculate lighting adjusted color
+    /**
+     * Returns how bright a face with the given lighting factor is, from 0 to 1.5
+     */
+    static double lightLevel(double lightingFactor) {
         double factor = ambientLight + (directionalLight * lightingFactor);
-        factor = Math.max(0.0, Math.min(1.5, factor)); // Limit the range
+        return Math.max(0.0, Math.min(1.5, factor)); // Limit the range
+    }
+
+    /**
+     * Computes a color at a light level without the cache
+     */
+    static Color computeLighting(Color baseColor, double lightLevel) {
+        // Calculate lighting adjusted color
+        double factor = lightLevel;
         int r = (int)(baseColor.getRed() * factor);
         int g = (int)(baseColor.getGreen() * factor);
         int b = (int)(baseColor.getBlue() * factor);
@@ -51,6 +53,13 @@ public class RenderingUtil {
      * Creates a darker version of a color
      */
     public static Color darker(Color c) {
+        return ShadeCache.getDarker(c);
+    }
+
+    /**
+     * Computes a darker color without the cache
+     */
+    static Color computeDarker(Color c) {
         return new Color(
                 Math.max((int)(c.getRed() * 0.7), 0),
                 Math.max((int)(c.getGreen() * 0.7), 0),
@@ -58,10 +67,36 @@ public class RenderingUtil {
         );
     }
 
+    /**
+     * Creates a slightly darker version of a color, for parts in the shade
+     * of the piece above them
+     */
+    public static Color dimmer(Color c) {
+        return ShadeCache.getDimmer(c);
+    }
+
+    /**
+     * Computes a slightly darker color without the cache
+     */
+    static Color computeDimmer(Color c) {
+        return new Color(
+                Math.max((int)(c.getRed() * 0.8), 0),
+                Math.max((int)(c.getGreen() * 0.8), 0),
+                Math.max((int)(c.getBlue() * 0.8), 0)
+        );
+    }
+
     /**
      * Creates a lighter version of a color
      */
     public static Color lighter(Color c) {
+        return ShadeCache.getLighter(c);
+    }
+
+    /**
+     * Computes a lighter color without the cache
+     */
+    static Color computeLighter(Color c) {
         return new Color(
                 Math.min((int)(c.getRed() * 1.3), 255),
                 Math.min((int)(c.getGreen() * 1.3), 255),
@@ -70,72 +105,35 @@ public class RenderingUtil {
     }
 
     /**
-     * Draws a 3D box with proper lighting
+     * Adds the faces of a 3D box with proper lighting to the frame
      */
-    public static void drawBox3D(Graphics2D g2d, double x, double y, double z,
+    public static void drawBox3D(FaceBuffer faces, double x, double y, double z,
                                  double width, double length, double height,
-                                 Color color, double lightFactor, double rotationX, double rotationY, boolean lightingEnabled) {
-        // Create 3D box points
-        double[][] boxPoints = {
-                // Bottom face
-                {x, y, z},
-                {x + width, y, z},
-                {x + width, y + length, z},
-                {x, y + length, z},
-                // Top face
-                {x, y, z + height},
-                {x + width, y, z + height},
-                {x + width, y + length, z + height},
-                {x, y + length, z + height}
-        };
-
-        // Project points to 2D
-        Point[] box2D = new Point[8];
-        for (int i = 0; i < 8; i++) {
-            box2D[i] = projectPoint(boxPoints[i], rotationX, rotationY);
-        }
+                                 Color color, double lightFactor, Camera camera, boolean lightingEnabled) {
+        ProjectionBuffer buffer = ProjectionBuffer.forCurrentThread();
+        int mark = buffer.mark();
+        int v = buffer.addBox(x, y, z, width, length, height);
+        buffer.project(camera, v);
+        Color outline = darker(color);
 
-        // Draw the box
-        // Bottom face
-        g2d.setColor(applyLighting(color, lightFactor * 0.7, lightingEnabled));
-        Path2D bottomFace = new Path2D.Double();
-        bottomFace.moveTo(box2D[0].x, box2D[0].y);
-        for (int i = 1; i < 4; i++) {
-            bottomFace.lineTo(box2D[i].x, box2D[i].y);
-        }
-        bottomFace.closePath();
-        g2d.fill(bottomFace);
-        g2d.setColor(darker(color));
-        g2d.draw(bottomFace);
+        // Bottom face, wound to face down
+        faces.addQuad(buffer, v, v + 3, v + 2, v + 1,
+                applyLighting(color, lightFactor * 0.7, lightingEnabled), outline);
 
         // Side faces
         for (int i = 0; i < 4; i++) {
             int next = (i + 1) % 4;
             // Vary lighting by side
             double sideLightFactor = lightFactor * (1.0 - (i * 0.1));
-            g2d.setColor(applyLighting(color, sideLightFactor, lightingEnabled));
-            Path2D sideFace = new Path2D.Double();
-            sideFace.moveTo(box2D[i].x, box2D[i].y);
-            sideFace.lineTo(box2D[next].x, box2D[next].y);
-            sideFace.lineTo(box2D[next + 4].x, box2D[next + 4].y);
-            sideFace.lineTo(box2D[i + 4].x, box2D[i + 4].y);
-            sideFace.closePath();
-            g2d.fill(sideFace);
-            g2d.setColor(darker(color));
-            g2d.draw(sideFace);
+            faces.addQuad(buffer, v + i, v + next, v + next + 4, v + i + 4,
+                    applyLighting(color, sideLightFactor, lightingEnabled), outline);
         }
 
         // Top face
-        g2d.setColor(applyLighting(color, lightFactor * 1.1, lightingEnabled)); // Top gets more light
-        Path2D topFace = new Path2D.Double();
-        topFace.moveTo(box2D[4].x, box2D[4].y);
-        for (int i = 5; i < 8; i++) {
-            topFace.lineTo(box2D[i].x, box2D[i].y);
-        }
-        topFace.closePath();
-        g2d.fill(topFace);
-        g2d.setColor(darker(color));
-        g2d.draw(topFace);
+        faces.addQuad(buffer, v + 4, v + 5, v + 6, v + 7,
+                applyLighting(color, lightFactor * 1.1, lightingEnabled), outline); // Top gets more light
+
+        buffer.release(mark);
     }
 
     /**
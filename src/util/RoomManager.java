@@ -1,5 +1,9 @@
+/**
+ * Holds the room being set up. Volatile so background workers see the
+ * room the editor last set.
+ */
 public class RoomManager {
-    private static Room currentRoom;
+    private static volatile Room currentRoom;
 
     public static void setCurrentRoom(Room room) {
         currentRoom = room;
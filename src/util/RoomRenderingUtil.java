@@ -1,38 +1,43 @@
 import java.awt.*;
-import java.awt.geom.Path2D;
 
 /**
  * Utility class for rendering room elements in 3D
  */
 public class RoomRenderingUtil {
+    // Very transparent black for texture lines
+    public static final Color TEXTURE_COLOR = new Color(0, 0, 0, 30);
+    // Wood grain lines across the floor, not counting the first
+    public static final int GRAIN_LINES = 15;
 
     /**
-     * Draws floor texture on a room (wood grain or tiles)
+     * Draws floor texture on a room (wood grain or tiles) over the projected
+     * floor corners in xs and ys
      */
-    public static void drawFloorTexture(Graphics2D g2d, Point[] floorPoints, String roomShape) {
-        // Skip texture if not rectangular or if points are invalid
-        if (floorPoints.length < 4) return;
+    public static void drawFloorTexture(Graphics2D g2d, int[] xs, int[] ys) {
+        int x0 = xs[0], y0 = ys[0];
+        int x1 = xs[1], y1 = ys[1];
+        int x2 = xs[2], y2 = ys[2];
+        int x3 = xs[3], y3 = ys[3];
 
         // Save original color
         Color originalColor = g2d.getColor();
 
         // Use a very transparent black for texture lines
-        g2d.setColor(new Color(0, 0, 0, 30));
+        g2d.setColor(TEXTURE_COLOR);
 
         // Determine if we need wood grain or tiles
         boolean woodGrain = true; // Could make this a user preference later
 
         if (woodGrain) {
             // Draw wood grain lines
-            int linesCount = 15;
-            for (int i = 0; i <= linesCount; i++) {
-                double ratio = (double) i / linesCount;
-                int x1 = (int) (floorPoints[0].x + (floorPoints[1].x - floorPoints[0].x) * ratio);
-                int y1 = (int) (floorPoints[0].y + (floorPoints[1].y - floorPoints[0].y) * ratio);
-                int x2 = (int) (floorPoints[3].x + (floorPoints[2].x - floorPoints[3].x) * ratio);
-                int y2 = (int) (floorPoints[3].y + (floorPoints[2].y - floorPoints[3].y) * ratio);
-
-                g2d.drawLine(x1, y1, x2, y2);
+            for (int i = 0; i <= GRAIN_LINES; i++) {
+                double ratio = (double) i / GRAIN_LINES;
+                int lx1 = (int) (x0 + (x1 - x0) * ratio);
+                int ly1 = (int) (y0 + (y1 - y0) * ratio);
+                int lx2 = (int) (x3 + (x2 - x3) * ratio);
+                int ly2 = (int) (y3 + (y2 - y3) * ratio);
+
+                g2d.drawLine(lx1, ly1, lx2, ly2);
             }
         } else {
             // Draw tile pattern
@@ -41,22 +46,22 @@ public class RoomRenderingUtil {
 
             for (int i = 0; i <= tilesX; i++) {
                 double ratioX = (double) i / tilesX;
-                int x1 = (int) (floorPoints[0].x + (floorPoints[1].x - floorPoints[0].x) * ratioX);
-                int y1 = (int) (floorPoints[0].y + (floorPoints[1].y - floorPoints[0].y) * ratioX);
-                int x2 = (int) (floorPoints[3].x + (floorPoints[2].x - floorPoints[3].x) * ratioX);
-                int y2 = (int) (floorPoints[3].y + (floorPoints[2].y - floorPoints[3].y) * ratioX);
+                int lx1 = (int) (x0 + (x1 - x0) * ratioX);
+                int ly1 = (int) (y0 + (y1 - y0) * ratioX);
+                int lx2 = (int) (x3 + (x2 - x3) * ratioX);
+                int ly2 = (int) (y3 + (y2 - y3) * ratioX);
 
-                g2d.drawLine(x1, y1, x2, y2);
+                g2d.drawLine(lx1, ly1, lx2, ly2);
             }
 
             for (int i = 0; i <= tilesY; i++) {
                 double ratioY = (double) i / tilesY;
-                int x1 = (int) (floorPoints[0].x + (floorPoints[3].x - floorPoints[0].x) * ratioY);
-                int y1 = (int) (floorPoints[0].y + (floorPoints[3].y - floorPoints[0].y) * ratioY);
-                int x2 = (int) (floorPoints[1].x + (floorPoints[2].x - floorPoints[1].x) * ratioY);
-                int y2 = (int) (floorPoints[1].y + (floorPoints[2].y - floorPoints[1].y) * ratioY);
+                int lx1 = (int) (x0 + (x3 - x0) * ratioY);
+                int ly1 = (int) (y0 + (y3 - y0) * ratioY);
+                int lx2 = (int) (x1 + (x2 - x1) * ratioY);
+                int ly2 = (int) (y1 + (y2 - y1) * ratioY);
 
-                g2d.drawLine(x1, y1, x2, y2);
+                g2d.drawLine(lx1, ly1, lx2, ly2);
             }
         }
 
@@ -65,114 +70,72 @@ public class RoomRenderingUtil {
     }
 
     /**
-     * Draws a rectangular room in 3D
+     * Adds the faces of a rectangular room in 3D
      */
-    public static void drawRectangularRoom3D(Graphics2D g2d, Room room, double width, double length,
-                                             double height, double rotationX, double rotationY,
-                                             boolean lightingEnabled) {
-        // Calculate 3D points for rectangular room
-        double[][] floorPoints = {
-                {-width / 2, -length / 2, 0},
-                {width / 2, -length / 2, 0},
-                {width / 2, length / 2, 0},
-                {-width / 2, length / 2, 0}
-        };
-
-        double[][] ceilingPoints = {
-                {-width / 2, -length / 2, height},
-                {width / 2, -length / 2, height},
-                {width / 2, length / 2, height},
-                {-width / 2, length / 2, height}
-        };
-
-        // Project 3D points to 2D based on rotation
-        Point[] floor2D = new Point[4];
-        Point[] ceiling2D = new Point[4];
-
-        for (int i = 0; i < 4; i++) {
-            floor2D[i] = RenderingUtil.projectPoint(floorPoints[i], rotationX, rotationY);
-            ceiling2D[i] = RenderingUtil.projectPoint(ceilingPoints[i], rotationX, rotationY);
-        }
+    public static void drawRectangularRoom3D(FaceBuffer faces, Room room, double width, double length,
+                                             double height, Camera camera, boolean lightingEnabled) {
+        // Floor corners, then the ceiling corners above them
+        ProjectionBuffer buffer = ProjectionBuffer.forCurrentThread();
+        int mark = buffer.mark();
+        int floor = buffer.addBox(-width / 2, -length / 2, 0, width, length, height);
+        int ceiling = floor + 4;
+        buffer.project(camera, floor);
 
         // CRITICAL: Get wall and floor colors - ensure we have valid colors
         Color wallColor = room.getWallColor();
         Color floorColor = room.getFloorColor();
 
         // Print debug info to help diagnose color issues
-        System.out.println("Room floor color: " + floorColor);
-        System.out.println("Room wall color: " + wallColor);
+        if (RenderStats.isLogging()) {
+            System.out.println("Room floor color: " + floorColor);
+            System.out.println("Room wall color: " + wallColor);
+        }
 
         if (wallColor == null) {
             wallColor = new Color(150, 150, 150); // Default gray if no color set
-            System.out.println("Using default wall color: " + wallColor);
+            if (RenderStats.isLogging()) {
+                System.out.println("Using default wall color: " + wallColor);
+            }
         }
         if (floorColor == null) {
             floorColor = new Color(110, 80, 50); // Default wood brown if no color set
-            System.out.println("Using default floor color: " + floorColor);
+            if (RenderStats.isLogging()) {
+                System.out.println("Using default floor color: " + floorColor);
+            }
         }
 
-        // IMPORTANT: Draw walls first to ensure floor is drawn on top
+        Color wallOutline = RenderingUtil.darker(wallColor);
+
+        // Walls, wound to face into the room
         for (int i = 0; i < 4; i++) {
             int next = (i + 1) % 4;
             // Apply different lighting based on wall orientation for 3D effect
             double lightFactor = 1.0 - (i * 0.15); // Each wall gets progressively darker
             Color lightedWallColor = RenderingUtil.applyLighting(wallColor, lightFactor, lightingEnabled);
-            g2d.setColor(lightedWallColor);
-
-            Path2D wallPath = new Path2D.Double();
-            wallPath.moveTo(floor2D[i].x, floor2D[i].y);
-            wallPath.lineTo(floor2D[next].x, floor2D[next].y);
-            wallPath.lineTo(ceiling2D[next].x, ceiling2D[next].y);
-            wallPath.lineTo(ceiling2D[i].x, ceiling2D[i].y);
-            wallPath.closePath();
-
-            g2d.fill(wallPath);
-            g2d.setColor(RenderingUtil.darker(wallColor));
-            g2d.draw(wallPath);
+            faces.addQuad(buffer, floor + i, ceiling + i, ceiling + next, floor + next, lightedWallColor, wallOutline);
         }
 
         // Draw ceiling
         Color lightedCeilingColor = RenderingUtil.applyLighting(wallColor, 0.7, lightingEnabled);
-        g2d.setColor(lightedCeilingColor);
-        Path2D ceilingPath = new Path2D.Double();
-        ceilingPath.moveTo(ceiling2D[0].x, ceiling2D[0].y);
-
-        for (int i = 1; i < 4; i++) {
-            ceilingPath.lineTo(ceiling2D[i].x, ceiling2D[i].y);
-        }
-
-        ceilingPath.closePath();
-        g2d.fill(ceilingPath);
-        g2d.setColor(RenderingUtil.darker(wallColor));
-        g2d.draw(ceilingPath);
+        faces.addQuad(buffer, ceiling, ceiling + 3, ceiling + 2, ceiling + 1, lightedCeilingColor, wallOutline);
 
         // CRITICAL: Draw floor using floor color with proper lighting factor
         // Use a higher lighting factor (1.0) to make floor color more visible
         Color lightedFloorColor = RenderingUtil.applyLighting(floorColor, 1.0, lightingEnabled);
-        g2d.setColor(lightedFloorColor);
-
-        Path2D floorPath = new Path2D.Double();
-        floorPath.moveTo(floor2D[0].x, floor2D[0].y);
-
-        for (int i = 1; i < 4; i++) {
-            floorPath.lineTo(floor2D[i].x, floor2D[i].y);
-        }
-
-        floorPath.closePath();
-        g2d.fill(floorPath);
-        g2d.setColor(RenderingUtil.darker(floorColor));
-        g2d.draw(floorPath);
+        int floorFace = faces.addQuad(buffer, floor, floor + 1, floor + 2, floor + 3,
+                lightedFloorColor, RenderingUtil.darker(floorColor));
 
         // Add texture to floor after floor is colored
-        drawFloorTexture(g2d, floor2D, room.getShape());
+        faces.setTextured(floorFace);
+
+        buffer.release(mark);
     }
 
     /**
-     * Draws an L-shaped room in 3D
+     * Adds the faces of an L-shaped room in 3D
      */
-    public static void drawLShapedRoom3D(Graphics2D g2d, Room room, double width, double length,
-                                         double height, double rotationX, double rotationY,
-                                         boolean lightingEnabled) {
+    public static void drawLShapedRoom3D(FaceBuffer faces, Room room, double width, double length,
+                                         double height, Camera camera, boolean lightingEnabled) {
         // For L-shaped room, create two rectangles
         double mainWidth = width * 0.8;
         double mainLength = length * 0.8;
@@ -180,20 +143,19 @@ public class RoomRenderingUtil {
         double extensionLength = length * 0.4;
 
         // Draw main rectangle
-        drawPartialRoom(g2d, room, -mainWidth / 4, 0, mainWidth, mainLength, height,
-                rotationX, rotationY, lightingEnabled);
+        drawPartialRoom(faces, room, -mainWidth / 4, 0, mainWidth, mainLength, height,
+                camera, lightingEnabled);
 
         // Draw extension (the smaller part of the L)
-        drawPartialRoom(g2d, room, -mainWidth / 2 - extensionWidth / 2, mainLength / 2 - extensionLength / 2,
-                extensionWidth, extensionLength, height, rotationX, rotationY, lightingEnabled);
+        drawPartialRoom(faces, room, -mainWidth / 2 - extensionWidth / 2, mainLength / 2 - extensionLength / 2,
+                extensionWidth, extensionLength, height, camera, lightingEnabled);
     }
 
     /**
-     * Draws a T-shaped room in 3D
+     * Adds the faces of a T-shaped room in 3D
      */
-    public static void drawTShapedRoom3D(Graphics2D g2d, Room room, double width, double length,
-                                         double height, double rotationX, double rotationY,
-                                         boolean lightingEnabled) {
+    public static void drawTShapedRoom3D(FaceBuffer faces, Room room, double width, double length,
+                                         double height, Camera camera, boolean lightingEnabled) {
         // For T-shaped room, create two rectangles
         double mainWidth = width * 0.8;
         double mainLength = length * 0.6;
@@ -201,43 +163,26 @@ public class RoomRenderingUtil {
         double topLength = length * 0.4;
 
         // Draw main rectangle (vertical part of T)
-        drawPartialRoom(g2d, room, 0, length / 4, mainWidth, mainLength, height,
-                rotationX, rotationY, lightingEnabled);
+        drawPartialRoom(faces, room, 0, length / 4, mainWidth, mainLength, height,
+                camera, lightingEnabled);
 
         // Draw top of T (horizontal part)
-        drawPartialRoom(g2d, room, 0, -length / 2 + topLength / 2, topWidth, topLength, height,
-                rotationX, rotationY, lightingEnabled);
+        drawPartialRoom(faces, room, 0, -length / 2 + topLength / 2, topWidth, topLength, height,
+                camera, lightingEnabled);
     }
 
     /**
-     * Draws a partial room section (used for complex room shapes)
+     * Adds the faces of a partial room section (used for complex room shapes)
      */
-    public static void drawPartialRoom(Graphics2D g2d, Room room, double offsetX, double offsetY,
+    public static void drawPartialRoom(FaceBuffer faces, Room room, double offsetX, double offsetY,
                                        double width, double length, double height,
-                                       double rotationX, double rotationY, boolean lightingEnabled) {
-        // Calculate 3D points for a partial room
-        double[][] floorPoints = {
-                {offsetX - width/2, offsetY - length/2, 0},
-                {offsetX + width/2, offsetY - length/2, 0},
-                {offsetX + width/2, offsetY + length/2, 0},
-                {offsetX - width/2, offsetY + length/2, 0}
-        };
-
-        double[][] ceilingPoints = {
-                {offsetX - width/2, offsetY - length/2, height},
-                {offsetX + width/2, offsetY - length/2, height},
-                {offsetX + width/2, offsetY + length/2, height},
-                {offsetX - width/2, offsetY + length/2, height}
-        };
-
-        // Project 3D points to 2D
-        Point[] floor2D = new Point[4];
-        Point[] ceiling2D = new Point[4];
-
-        for (int i = 0; i < 4; i++) {
-            floor2D[i] = RenderingUtil.projectPoint(floorPoints[i], rotationX, rotationY);
-            ceiling2D[i] = RenderingUtil.projectPoint(ceilingPoints[i], rotationX, rotationY);
-        }
+                                       Camera camera, boolean lightingEnabled) {
+        // Floor corners, then the ceiling corners above them
+        ProjectionBuffer buffer = ProjectionBuffer.forCurrentThread();
+        int mark = buffer.mark();
+        int floor = buffer.addBox(offsetX - width / 2, offsetY - length / 2, 0, width, length, height);
+        int ceiling = floor + 4;
+        buffer.project(camera, floor);
 
         // Get wall and floor colors - ensure we have valid colors
         Color wallColor = room.getWallColor();
@@ -250,54 +195,28 @@ public class RoomRenderingUtil {
             floorColor = new Color(110, 80, 50); // Default wood brown
         }
 
-        // IMPORTANT: Draw walls first
+        Color wallOutline = RenderingUtil.darker(wallColor);
+
+        // Walls, wound to face into the room
         for (int i = 0; i < 4; i++) {
             int next = (i + 1) % 4;
             // Apply different lighting based on wall orientation
             double lightFactor = 1.0 - (i * 0.15);
-            g2d.setColor(RenderingUtil.applyLighting(wallColor, lightFactor, lightingEnabled));
-
-            Path2D wallPath = new Path2D.Double();
-            wallPath.moveTo(floor2D[i].x, floor2D[i].y);
-            wallPath.lineTo(floor2D[next].x, floor2D[next].y);
-            wallPath.lineTo(ceiling2D[next].x, ceiling2D[next].y);
-            wallPath.lineTo(ceiling2D[i].x, ceiling2D[i].y);
-            wallPath.closePath();
-
-            g2d.fill(wallPath);
-            g2d.setColor(RenderingUtil.darker(wallColor));
-            g2d.draw(wallPath);
+            faces.addQuad(buffer, floor + i, ceiling + i, ceiling + next, floor + next,
+                    RenderingUtil.applyLighting(wallColor, lightFactor, lightingEnabled), wallOutline);
         }
 
         // Draw ceiling
-        g2d.setColor(RenderingUtil.applyLighting(wallColor, 0.7, lightingEnabled));
-        Path2D ceilingPath = new Path2D.Double();
-        ceilingPath.moveTo(ceiling2D[0].x, ceiling2D[0].y);
-
-        for (int i = 1; i < 4; i++) {
-            ceilingPath.lineTo(ceiling2D[i].x, ceiling2D[i].y);
-        }
-
-        ceilingPath.closePath();
-        g2d.fill(ceilingPath);
-        g2d.setColor(RenderingUtil.darker(wallColor));
-        g2d.draw(ceilingPath);
+        faces.addQuad(buffer, ceiling, ceiling + 3, ceiling + 2, ceiling + 1,
+                RenderingUtil.applyLighting(wallColor, 0.7, lightingEnabled), wallOutline);
 
         // Draw floor with proper floor color and full lighting
-        g2d.setColor(RenderingUtil.applyLighting(floorColor, 1.0, lightingEnabled));
-        Path2D floorPath = new Path2D.Double();
-        floorPath.moveTo(floor2D[0].x, floor2D[0].y);
-
-        for (int i = 1; i < 4; i++) {
-            floorPath.lineTo(floor2D[i].x, floor2D[i].y);
-        }
-
-        floorPath.closePath();
-        g2d.fill(floorPath);
-        g2d.setColor(RenderingUtil.darker(floorColor));
-        g2d.draw(floorPath);
+        int floorFace = faces.addQuad(buffer, floor, floor + 1, floor + 2, floor + 3,
+                RenderingUtil.applyLighting(floorColor, 1.0, lightingEnabled), RenderingUtil.darker(floorColor));
 
         // Add floor texture last
-        drawFloorTexture(g2d, floor2D, room.getShape());
+        faces.setTextured(floorFace);
+
+        buffer.release(mark);
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shaded colors shared by room and furniture rendering.
+ *
+ * A frame lights the same few base colors by the same few light levels
+ * over and over, so each base color keeps its shades by light level, next
+ * to its darker, dimmer and lighter versions. Shading a face is then a table lookup
+ * instead of a new {@link Color}. Light levels are rounded to
+ * {@link #LIGHT_STEPS} steps per unit, which keeps the table small and
+ * moves a channel by at most one.
+ *
+ * Every thread has its own cache, so renderers on different threads never
+ * wait for each other; {@link #size()} and {@link #clear()} apply to the
+ * calling thread's cache. Once more than {@link #MAX_COLORS} base colors are
+ * in use a cache starts over.
+ */
+public class ShadeCache {
+    public static final int MAX_COLORS = 512;
+    public static final int LIGHT_STEPS = 256;
+    // Light levels run from 0 to 1.5
+    private static final int LEVELS = LIGHT_STEPS * 3 / 2 + 1;
+
+    private static final ThreadLocal<Table> tables = ThreadLocal.withInitial(Table::new);
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    /** Everything cached for one base color */
+    private static class Shades {
+        final int argb;
+        Color color;
+        Color darker;
+        Color dimmer;
+        Color lighter;
+        // Made on first use, by rounded light level
+        Color[] lit;
+
+        Shades(int argb) {
+            this.argb = argb;
+        }
+    }
+
+    /** One thread's base colors, by open addressing on the ARGB value */
+    private static class Table {
+        final Shades[] slots = new Shades[MAX_COLORS * 2];
+        int size;
+
+        Shades shadesFor(int argb) {
+            int mask = slots.length - 1;
+            int slot = (argb * 0x9E3779B9) >>> 16 & mask;
+            while (slots[slot] != null) {
+                if (slots[slot].argb == argb) {
+                    return slots[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == MAX_COLORS) {
+                clear();
+                slot = (argb * 0x9E3779B9) >>> 16 & mask;
+            }
+            size++;
+            return slots[slot] = new Shades(argb);
+        }
+
+        void clear() {
+            Arrays.fill(slots, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Returns the color for a packed ARGB value
+     */
+    public static Color getColor(int argb) {
+        Shades shades = tables.get().shadesFor(argb);
+        if (shades.color != null) {
+            hits.increment();
+            return shades.color;
+        }
+        misses.increment();
+        shades.color = new Color(argb, true);
+        return shades.color;
+    }
+
+    /**
+     * Returns baseColor lit by lightingFactor, as
+     * {@link RenderingUtil#applyLighting} with lighting on
+     */
+    public static Color getLit(Color baseColor, double lightingFactor) {
+        Shades shades = tables.get().shadesFor(baseColor.getRGB());
+        if (shades.lit == null) {
+            shades.lit = new Color[LEVELS];
+        }
+        int level = (int) Math.round(RenderingUtil.lightLevel(lightingFactor) * LIGHT_STEPS);
+        Color lit = shades.lit[level];
+        if (lit != null) {
+            hits.increment();
+            return lit;
+        }
+        misses.increment();
+        lit = RenderingUtil.computeLighting(baseColor, (double) level / LIGHT_STEPS);
+        shades.lit[level] = lit;
+        return lit;
+    }
+
+    /**
+     * Returns the darker version of a color, as {@link RenderingUtil#darker}
+     */
+    public static Color getDarker(Color c) {
+        Shades shades = tables.get().shadesFor(c.getRGB());
+        if (shades.darker != null) {
+            hits.increment();
+            return shades.darker;
+        }
+        misses.increment();
+        shades.darker = RenderingUtil.computeDarker(c);
+        return shades.darker;
+    }
+
+    /**
+     * Returns the dimmer version of a color, as {@link RenderingUtil#dimmer}
+     */
+    public static Color getDimmer(Color c) {
+        Shades shades = tables.get().shadesFor(c.getRGB());
+        if (shades.dimmer != null) {
+            hits.increment();
+            return shades.dimmer;
+        }
+        misses.increment();
+        shades.dimmer = RenderingUtil.computeDimmer(c);
+        return shades.dimmer;
+    }
+
+    /**
+     * Returns the lighter version of a color, as {@link RenderingUtil#lighter}
+     */
+    public static Color getLighter(Color c) {
+        Shades shades = tables.get().shadesFor(c.getRGB());
+        if (shades.lighter != null) {
+            hits.increment();
+            return shades.lighter;
+        }
+        misses.increment();
+        shades.lighter = RenderingUtil.computeLighter(c);
+        return shades.lighter;
+    }
+
+    /**
+     * Returns how many base colors the calling thread's cache holds
+     */
+    public static int size() {
+        return tables.get().size;
+    }
+
+    /**
+     * Returns the lookups answered from a cache, over all threads
+     */
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the lookups that had to compute a color, over all threads
+     */
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Empties the calling thread's cache
+     */
+    public static void clear() {
+        tables.get().clear();
+    }
+}
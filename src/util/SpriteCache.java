@@ -0,0 +1,176 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-drawn images of 2D furniture, so the plan copies each piece instead
+ * of drawing its seat, back, legs and outline again.
+ *
+ * A sprite is made per furniture type, size, color, zoom and antialiasing,
+ * at one image pixel per screen pixel, so copying it gives the same pixels
+ * as drawing. Furniture is not drawn rotated in the plan, so rotation is not
+ * part of the key. Zoom is taken from the graphics transform and must be a
+ * whole number up to {@link #MAX_ZOOM}, as on scaled displays, for sprite
+ * pixels to land on screen pixels; furniture over 2047 pixels is drawn
+ * directly too.
+ *
+ * Copying a sprite in software blends every pixel of it, which costs more
+ * than filling the few rectangles of a piece again, so sprites are only
+ * used where the graphics card copies images. The least recently used
+ * sprites are dropped once they hold more than {@link #MAX_PIXELS} pixels.
+ */
+public class SpriteCache {
+    public static final long MAX_PIXELS = 2L * 1024 * 1024;
+
+    public static final int MAX_ZOOM = 7;
+
+    private static final int MAX_SIZE = 2047;
+
+    private static final Map<Long, Sprite> sprites = new LinkedHashMap<>(64, 0.75f, true);
+    private static long pixels;
+    private static long hits;
+    private static long misses;
+    private static long evictions;
+
+    /** A pre-drawn piece of furniture and where it sits from the item's corner */
+    private static class Sprite {
+        final BufferedImage image;
+        final int left;
+        final int top;
+
+        Sprite(BufferedImage image, int left, int top) {
+            this.image = image;
+            this.left = left;
+            this.top = top;
+        }
+    }
+
+    /**
+     * Copies the sprite for a piece of furniture with its corner at (x, y),
+     * drawing the sprite first if needed. Returns false, drawing nothing, if
+     * the furniture cannot be drawn from a sprite at this transform.
+     */
+    public static boolean drawSprite(Graphics g, FurnitureType type, int x, int y, int width, int height,
+                                     Color color) {
+        if (!(g instanceof Graphics2D)
+                || width <= 0 || height <= 0 || width > MAX_SIZE || height > MAX_SIZE) {
+            return false;
+        }
+        Graphics2D g2d = (Graphics2D) g;
+        AffineTransform transform = g2d.getTransform();
+        int kind = transform.getType() & ~AffineTransform.TYPE_TRANSLATION;
+        if (kind != AffineTransform.TYPE_IDENTITY && kind != AffineTransform.TYPE_UNIFORM_SCALE) {
+            return false;
+        }
+        double scale = transform.getScaleX();
+        int zoom = (int) scale;
+        if (zoom < 1 || zoom > MAX_ZOOM || zoom != scale) {
+            return false;
+        }
+        if (!g2d.getDeviceConfiguration().getImageCapabilities().isAccelerated()) {
+            return false;
+        }
+        boolean antialiased =
+                g2d.getRenderingHint(RenderingHints.KEY_ANTIALIASING) == RenderingHints.VALUE_ANTIALIAS_ON;
+
+        Sprite sprite = getSprite(g2d, type, width, height, color, zoom, antialiased);
+        // One sprite pixel per screen pixel
+        if (zoom == 1) {
+            g2d.drawImage(sprite.image, x + sprite.left, y + sprite.top, null);
+        } else {
+            g2d.drawImage(sprite.image,
+                    new AffineTransform(1.0 / zoom, 0, 0, 1.0 / zoom, x + sprite.left, y + sprite.top), null);
+        }
+        return true;
+    }
+
+    public static synchronized int size() {
+        return sprites.size();
+    }
+
+    public static synchronized long getPixels() {
+        return pixels;
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the share of lookups that found a sprite, 0 before any lookup
+     */
+    public static synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public static synchronized void clear() {
+        sprites.clear();
+        pixels = 0;
+    }
+
+    private static synchronized Sprite getSprite(Graphics2D g2d, FurnitureType type, int width, int height,
+                                                 Color color, int zoom, boolean antialiased) {
+        long key = key(type, width, height, color, zoom, antialiased);
+        Sprite sprite = sprites.get(key);
+        if (sprite != null) {
+            hits++;
+            return sprite;
+        }
+        misses++;
+        sprite = makeSprite(g2d.getDeviceConfiguration(), type, width, height, color, zoom, antialiased);
+        sprites.put(key, sprite);
+        pixels += (long) sprite.image.getWidth() * sprite.image.getHeight();
+
+        // Drop the least recently used sprites, keeping the new one
+        Iterator<Sprite> eldest = sprites.values().iterator();
+        while (pixels > MAX_PIXELS && sprites.size() > 1) {
+            Sprite dropped = eldest.next();
+            pixels -= (long) dropped.image.getWidth() * dropped.image.getHeight();
+            eldest.remove();
+            evictions++;
+        }
+        return sprite;
+    }
+
+    private static Sprite makeSprite(GraphicsConfiguration config, FurnitureType type, int width, int height,
+                                     Color color, int zoom, boolean antialiased) {
+        Rectangle bounds = PlanRenderingUtil.getGlyphBounds(type, width, height);
+        // Without antialiasing every pixel is either covered or not
+        BufferedImage image = config.createCompatibleImage(bounds.width * zoom, bounds.height * zoom,
+                antialiased ? Transparency.TRANSLUCENT : Transparency.BITMASK);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiased
+                    ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+            g2d.scale(zoom, zoom);
+            g2d.translate(-bounds.x, -bounds.y);
+            PlanRenderingUtil.drawGlyph(g2d, type, 0, 0, width, height, color);
+        } finally {
+            g2d.dispose();
+        }
+        return new Sprite(image, bounds.x, bounds.y);
+    }
+
+    // Color, both sides, type, zoom and antialiasing packed into one number
+    private static long key(FurnitureType type, int width, int height, Color color, int zoom,
+                            boolean antialiased) {
+        return (color.getRGB() & 0xFFFFFFFFL) << 32
+                | (long) width << 21
+                | (long) height << 10
+                | (long) type.ordinal() << 4
+                | (long) zoom << 1
+                | (antialiased ? 1 : 0);
+    }
+}
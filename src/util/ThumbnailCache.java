@@ -0,0 +1,236 @@
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Preview images of saved designs, kept on disk between runs.
+ *
+ * A thumbnail is stored under the design's name and last modified time, so
+ * saving a design again makes a new thumbnail and the old one is deleted.
+ * Thumbnails are looked up in memory first; anything else is read from disk
+ * or rendered on background threads and handed back on the event dispatch
+ * thread. The disk directory is kept under {@link #MAX_DISK_BYTES} by
+ * deleting the least recently used thumbnails, and at most
+ * {@link #MAX_IMAGES} are held in memory.
+ *
+ * Thumbnails are rendered from a private copy decoded from the saved
+ * record, never from the design object, which an editor may be changing on
+ * the event dispatch thread.
+ */
+public class ThumbnailCache {
+    public static final int WIDTH = 160;
+    public static final int HEIGHT = 120;
+    public static final int MAX_IMAGES = 128;
+    public static final long MAX_DISK_BYTES = 8L * 1024 * 1024;
+
+    private static final File DIRECTORY = new File("thumbnails");
+    private static final String SUFFIX = ".png";
+
+    // Guarded by the class lock
+    private static final Map<String, BufferedImage> images =
+            new LinkedHashMap<String, BufferedImage>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+                    return size() > MAX_IMAGES;
+                }
+            };
+    // Callbacks waiting for a thumbnail that is being loaded
+    private static final Map<String, List<Consumer<BufferedImage>>> pending = new HashMap<>();
+
+    // Thumbnail files by name, least recently used first, with their sizes.
+    // Guarded by diskLock and only used on the worker threads.
+    private static final Object diskLock = new Object();
+    private static Map<String, Long> files;
+    private static long diskBytes;
+
+    private static final ExecutorService workers = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
+                Thread thread = new Thread(r, "thumbnail-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Returns the thumbnail of a design if it is in memory. Otherwise returns
+     * null and loads it in the background, then passes it to whenReady on
+     * the event dispatch thread. whenReady is not called if the design cannot
+     * be loaded.
+     */
+    public static BufferedImage getThumbnail(DesignSummary summary, Consumer<BufferedImage> whenReady) {
+        String key = key(summary);
+        synchronized (ThumbnailCache.class) {
+            BufferedImage image = images.get(key);
+            if (image != null) {
+                return image;
+            }
+            List<Consumer<BufferedImage>> waiting = pending.get(key);
+            if (waiting != null) {
+                waiting.add(whenReady);
+                return null;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(whenReady);
+            pending.put(key, waiting);
+        }
+        workers.execute(() -> load(summary, key));
+        return null;
+    }
+
+    /**
+     * Forgets every thumbnail of a design, for when it is deleted
+     */
+    public static void remove(String designName) {
+        String prefix = prefix(designName);
+        synchronized (ThumbnailCache.class) {
+            images.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        workers.execute(() -> {
+            synchronized (diskLock) {
+                deleteFiles(prefix, null);
+            }
+        });
+    }
+
+    // Reads the thumbnail from disk or renders it, then hands it out
+    private static void load(DesignSummary summary, String key) {
+        BufferedImage image = null;
+        try {
+            image = read(key);
+            ByteBuffer record = summary.getRecord();
+            if (image == null && record != null) {
+                Design design = DesignReader.decode(record);
+                image = DesignRenderer.render3D(design, WIDTH, HEIGHT, DesignRenderer.DEFAULT_ROTATION_X,
+                        DesignRenderer.DEFAULT_ROTATION_Y, 1.0, true, false);
+                write(key, image);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error making thumbnail for '" + summary.getName() + "': " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        BufferedImage result = image;
+        List<Consumer<BufferedImage>> waiting;
+        synchronized (ThumbnailCache.class) {
+            if (result != null) {
+                images.put(key, result);
+            }
+            waiting = pending.remove(key);
+        }
+        if (result != null && waiting != null) {
+            SwingUtilities.invokeLater(() -> waiting.forEach(callback -> callback.accept(result)));
+        }
+    }
+
+    // Returns the thumbnail stored on disk, or null
+    private static BufferedImage read(String key) {
+        File file = new File(DIRECTORY, key);
+        synchronized (diskLock) {
+            if (index().get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            BufferedImage image = ImageIO.read(file);
+            if (image != null) {
+                // Remembers the use for the next run
+                file.setLastModified(System.currentTimeMillis());
+                return image;
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading thumbnail " + file + ": " + e.getMessage());
+        }
+        synchronized (diskLock) {
+            forget(key);
+        }
+        return null;
+    }
+
+    // Stores a thumbnail on disk, replacing older ones of the same design
+    private static void write(String key, BufferedImage image) {
+        File file = new File(DIRECTORY, key);
+        try {
+            if (!DIRECTORY.isDirectory() && !DIRECTORY.mkdirs()) {
+                throw new IOException("cannot create " + DIRECTORY);
+            }
+            ImageIO.write(image, "png", file);
+        } catch (IOException e) {
+            System.err.println("Error saving thumbnail " + file + ": " + e.getMessage());
+            return;
+        }
+        synchronized (diskLock) {
+            Map<String, Long> index = index();
+            deleteFiles(key.substring(0, key.lastIndexOf('-') + 1), key);
+            index.put(key, file.length());
+            diskBytes += file.length();
+
+            // Drop the least recently used thumbnails until under the limit
+            Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+            while (diskBytes > MAX_DISK_BYTES && index.size() > 1) {
+                Map.Entry<String, Long> entry = eldest.next();
+                diskBytes -= entry.getValue();
+                new File(DIRECTORY, entry.getKey()).delete();
+                eldest.remove();
+            }
+        }
+    }
+
+    // Deletes every stored thumbnail starting with prefix except keep
+    private static void deleteFiles(String prefix, String keep) {
+        Iterator<Map.Entry<String, Long>> entries = index().entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Long> entry = entries.next();
+            if (entry.getKey().startsWith(prefix) && !entry.getKey().equals(keep)) {
+                diskBytes -= entry.getValue();
+                new File(DIRECTORY, entry.getKey()).delete();
+                entries.remove();
+            }
+        }
+    }
+
+    private static void forget(String key) {
+        Long size = index().remove(key);
+        if (size != null) {
+            diskBytes -= size;
+        }
+    }
+
+    // Lists the thumbnail directory the first time, oldest use first
+    private static Map<String, Long> index() {
+        if (files == null) {
+            files = new LinkedHashMap<>(64, 0.75f, true);
+            File[] stored = DIRECTORY.listFiles((dir, name) -> name.endsWith(SUFFIX));
+            if (stored != null) {
+                Arrays.sort(stored, Comparator.comparingLong(File::lastModified));
+                for (File file : stored) {
+                    files.put(file.getName(), file.length());
+                    diskBytes += file.length();
+                }
+            }
+        }
+        return files;
+    }
+
+    // File name of a design's thumbnail: the design's file name, which does
+    // not clash with other designs', and the time it was last modified
+    private static String key(DesignSummary summary) {
+        return prefix(summary.getName()) + summary.getLastModifiedDate().getTime() + SUFFIX;
+    }
+
+    private static String prefix(String designName) {
+        return DesignRenderer.fileName(designName) + "-";
+    }
+}
@@ -5,6 +5,11 @@ import java.awt.geom.AffineTransform;
  * Utility class for rendering UI elements and information displays in 3D view
  */
 public class UIRenderingUtil {
+    public static final int HUD_WIDTH = 280;
+    public static final int HUD_HEIGHT = 145;
+
+    private static final Font HUD_FONT = new Font("Monospaced", Font.PLAIN, 11);
+    private static final Font HUD_SMALL_FONT = new Font("Monospaced", Font.PLAIN, 9);
 
     /**
      * Draws a gradient background for the 3D view
@@ -23,13 +28,79 @@ public class UIRenderingUtil {
      * Draws an information legend with room details
      */
     public static void drawLegend(Graphics2D g2d, Room room, int centerX, int centerY) {
+        drawLegend(g2d, room, centerX, centerY, null);
+    }
+
+    /**
+     * Draws a legend with room information and an optional status line
+     */
+    public static void drawLegend(Graphics2D g2d, Room room, int centerX, int centerY, String status) {
         g2d.setColor(new Color(0, 0, 0, 180)); // Semi-transparent black
-        g2d.fillRoundRect(-centerX + 10, -centerY + 10, 250, 80, 10, 10);
+        g2d.fillRoundRect(-centerX + 10, -centerY + 10, 250, status != null ? 100 : 80, 10, 10);
         g2d.setColor(Color.WHITE);
         g2d.drawString("Room: " + room.getWidth() + "m x " + room.getLength() + "m x " + room.getHeight() + "m",
                 -centerX + 20, -centerY + 30);
         g2d.drawString("Shape: " + room.getShape(), -centerX + 20, -centerY + 50);
         g2d.drawString("View: Drag to rotate, Zoom button to adjust", -centerX + 20, -centerY + 70);
+        if (status != null) {
+            g2d.drawString(status, -centerX + 20, -centerY + 90);
+        }
+    }
+
+    /**
+     * Draws the performance HUD of a view with its top left corner at
+     * (x, y): frame and stage times, allocation, items drawn and a
+     * histogram of frame times in milliseconds
+     */
+    public static void drawPerformanceHud(Graphics2D g2d, RenderStats stats, int x, int y) {
+        Font originalFont = g2d.getFont();
+
+        g2d.setColor(new Color(0, 0, 0, 180));
+        g2d.fillRoundRect(x, y, HUD_WIDTH, HUD_HEIGHT, 10, 10);
+
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(HUD_FONT);
+        g2d.drawString(String.format("%s %.1f ms  avg %.1f  max %.1f", stats.getView(),
+                millis(stats.getLastFrameNanos()), millis(stats.getAverageFrameNanos()),
+                millis(stats.getMaxFrameNanos())), x + 10, y + 18);
+
+        // Two stages to a line
+        int shown = 0;
+        for (int stage = 0; stage < RenderStats.STAGE_COUNT; stage++) {
+            if (stats.hasStage(stage)) {
+                g2d.drawString(String.format("%-9s %6.2f", RenderStats.getStageName(stage),
+                        millis(stats.getStageNanos(stage))),
+                        x + 10 + (shown % 2) * (HUD_WIDTH / 2), y + 34 + (shown / 2) * 16);
+                shown++;
+            }
+        }
+
+        long allocated = stats.getAllocatedBytes();
+        g2d.drawString((allocated >= 0 ? String.format("Alloc %.1f KB/frame", allocated / 1024.0) : "Alloc n/a")
+                + "  Items " + stats.getItemsDrawn(), x + 10, y + 66);
+
+        // Frame time histogram, bars over a frame at 60 fps in orange
+        int buckets = RenderStats.getBucketCount();
+        long most = 1;
+        for (int i = 0; i < buckets; i++) {
+            most = Math.max(most, stats.getBucket(i));
+        }
+        int barWidth = (HUD_WIDTH - 20) / buckets;
+        int barsBottom = y + HUD_HEIGHT - 18;
+        int barsHeight = 50;
+        g2d.setFont(HUD_SMALL_FONT);
+        for (int i = 0; i < buckets; i++) {
+            int limit = RenderStats.getBucketLimit(i);
+            int barHeight = (int) Math.ceil(barsHeight * (double) stats.getBucket(i) / most);
+            int barX = x + 10 + i * barWidth;
+            g2d.setColor(limit >= 0 && limit <= 16 ? new Color(120, 200, 120) : new Color(255, 165, 0));
+            g2d.fillRect(barX + 2, barsBottom - barHeight, barWidth - 4, barHeight);
+            g2d.setColor(Color.WHITE);
+            g2d.drawString(limit >= 0 ? "<" + limit : RenderStats.getBucketLimit(i - 1) + "+",
+                    barX + 2, barsBottom + 12);
+        }
+
+        g2d.setFont(originalFont);
     }
 
     /**
@@ -190,4 +261,8 @@ public class UIRenderingUtil {
         // Restore the original transform
         g2d.setTransform(originalTransform);
     }
-}
\ No newline at end of file
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -1,9 +1,13 @@
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Registered users and the user who is logged in. The user list is
+ * copy-on-write, so it can be read from any thread without locking.
+ */
 public class UserManager {
-    private static List<User> users = new ArrayList<>();
-    private static User currentUser = null;
+    private static final List<User> users = new CopyOnWriteArrayList<>();
+    private static volatile User currentUser = null;
 
     // Initialize with some default users
     static {